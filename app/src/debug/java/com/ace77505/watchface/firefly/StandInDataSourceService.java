@@ -0,0 +1,60 @@
+package com.ace77505.watchface.firefly;
+
+import android.os.RemoteException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.wear.watchface.complications.data.ComplicationData;
+import androidx.wear.watchface.complications.data.ComplicationType;
+import androidx.wear.watchface.complications.data.PlainComplicationText;
+import androidx.wear.watchface.complications.data.RangedValueComplicationData;
+import androidx.wear.watchface.complications.data.ShortTextComplicationData;
+import androidx.wear.watchface.complications.datasource.ComplicationDataSourceService;
+import androidx.wear.watchface.complications.datasource.ComplicationRequest;
+
+/**
+ * 本地测试数据源：返回一个每次更新加一的计数，用于在没有真实数据源的环境验证表盘组件的布局与按数据变化重绘
+ * debug 构建下作为 FireflyComplications 各槽位的默认数据源
+ */
+public class StandInDataSourceService extends ComplicationDataSourceService {
+    public static final int RANGE_MAX = 100;
+
+    private static int counter;
+
+    @Override
+    public void onComplicationRequest(@NonNull ComplicationRequest request,
+                                      @NonNull ComplicationRequestListener listener) {
+        int value;
+        synchronized (StandInDataSourceService.class) {
+            counter = (counter + 1) % (RANGE_MAX + 1);
+            value = counter;
+        }
+        try {
+            listener.onComplicationData(build(request.getComplicationType(), value));
+        } catch (RemoteException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Nullable
+    @Override
+    public ComplicationData getPreviewData(@NonNull ComplicationType type) {
+        return build(type, 42);
+    }
+
+    private static ComplicationData build(ComplicationType type, int value) {
+        PlainComplicationText text = new PlainComplicationText.Builder(String.valueOf(value)).build();
+        PlainComplicationText description = new PlainComplicationText.Builder("测试数据 " + value).build();
+        if (type == ComplicationType.RANGED_VALUE) {
+            return new RangedValueComplicationData.Builder(value, 0, RANGE_MAX, description)
+                    .setText(text)
+                    .build();
+        }
+        if (type == ComplicationType.SHORT_TEXT) {
+            return new ShortTextComplicationData.Builder(text, description)
+                    .setTitle(new PlainComplicationText.Builder("FF").build())
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * BackgroundCache - 生成并缓存与表盘等大的背景位图
+ *
+ * - 结果位图尺寸恰好等于 bounds，已按 scalePercent 完成中心裁切与缩放，绘制时 1:1 拷贝即可
+ * - 解码交给 BackgroundDecoder：只解码可见的中心区域并采样，避免把原图（数 MB）完整解码进内存
+ * - 生成结果保存在 filesDir/bg_cache 下，以 文件名 + 缩放 + 尺寸 为键，重启后直接复用
+ */
+public class BackgroundCache {
+    public static final String CACHE_DIR = "bg_cache";
+    // 缓存目录最多保留的文件数（超出时删除最旧的）
+    public static final int MAX_CACHE_FILES = 8;
+
+    private final Context context;
+    private final File cacheDir;
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+
+    public BackgroundCache(Context context) {
+        this.context = context.getApplicationContext();
+        this.cacheDir = new File(this.context.getFilesDir(), CACHE_DIR);
+    }
+
+    /**
+     * 缓存键：文件名 + 缩放百分比 + 目标尺寸
+     */
+    public static String cacheKey(String filename, int scalePercent, int width, int height) {
+        String safeName = filename.replaceAll("[^A-Za-z0-9._-]", "_");
+        return safeName + "_" + scalePercent + "_" + width + "x" + height + ".png";
+    }
+
+    /**
+     * 获取 width x height 的背景位图：优先读磁盘缓存，否则从 assets 采样解码并写入缓存
+     * @return 位图，失败返回 null
+     */
+    public Bitmap load(String filename, int scalePercent, int width, int height) {
+        if (filename == null || width <= 0 || height <= 0) return null;
+
+        File cached = new File(cacheDir, cacheKey(filename, scalePercent, width, height));
+        if (cached.isFile()) {
+            Bitmap bmp = BitmapFactory.decodeFile(cached.getAbsolutePath());
+            if (bmp != null && bmp.getWidth() == width && bmp.getHeight() == height) {
+                // 更新修改时间，供清理时判断新旧
+                cached.setLastModified(System.currentTimeMillis());
+                return bmp;
+            }
+            if (bmp != null) bmp.recycle();
+            cached.delete();
+        }
+
+        Bitmap built = build(filename, scalePercent, width, height);
+        if (built != null) {
+            save(built, cached);
+        }
+        return built;
+    }
+
+    /**
+     * 解码中心裁切区域（BackgroundDecoder 区域解码 + 采样），再缩放到 width x height
+     */
+    public Bitmap build(String filename, int scalePercent, int width, int height) {
+        BackgroundDecoder.Result decoded = BackgroundDecoder.decodeCenterCrop(
+                context, filename, scalePercent, width, height);
+        if (decoded == null) return null;
+
+        try {
+            return scaleToTarget(decoded.bitmap, decoded.src, width, height);
+        } finally {
+            decoded.bitmap.recycle();
+        }
+    }
+
+    /**
+     * 将 src 区域绘制到新的 width x height 位图
+     */
+    public Bitmap scaleToTarget(Bitmap source, Rect src, int width, int height) {
+        Bitmap out = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(out);
+        c.drawBitmap(source, src, new Rect(0, 0, width, height), scalePaint);
+        return out;
+    }
+
+    private void save(Bitmap bmp, File target) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) return;
+        File tmp = new File(cacheDir, target.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            bmp.compress(Bitmap.CompressFormat.PNG, 100, fos);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return;
+        }
+        // 先写临时文件再重命名，避免进程被杀时留下半个文件
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return;
+        }
+        trim();
+    }
+
+    /**
+     * 清理缓存目录，仅保留最近使用的 MAX_CACHE_FILES 个文件
+     */
+    private void trim() {
+        File[] files = cacheDir.listFiles();
+        if (files == null || files.length <= MAX_CACHE_FILES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_CACHE_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+}
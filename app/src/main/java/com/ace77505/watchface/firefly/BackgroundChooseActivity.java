@@ -1,27 +1,31 @@
 package com.ace77505.watchface.firefly;
 
 import android.app.Activity;
+import android.content.ActivityNotFoundException;
 import android.content.Intent;
-import android.content.res.AssetManager;
+import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * BackgroundChooseActivity
- * - 列出 assets 根目录下的图片（不显示预览），仅显示文件名
+ * - 列出背景清单（BackgroundManifest）中的图片与已导入的图片：左侧缩略图（ThumbnailLoader 后台采样解码 + 内存/磁盘缓存），右侧文件名
+ * - 顶部“导入本地图片”通过系统文档选择器选取图片，由 BackgroundImporter 在后台采样缩小后保存
  * - 当前选中的文件在右侧使用对号标记
  * - 点击某项进入 BackgroundPreviewActivity 进行预览与确认
  */
@@ -30,11 +34,16 @@ public class BackgroundChooseActivity extends Activity {
     private RecyclerView recyclerView;
     private PrefsAdapter adapter;
     private PreferencesManager prefsManager;
+    private ThumbnailLoader thumbnailLoader;
+    private BackgroundManifest manifest;
+    // 当前选中的背景：每次刷新列表时读取一次，绑定时不再访问 prefs
+    private String selectedFilename;
     private final List<String> assetImages = new ArrayList<>();
 
     private static final int REQUEST_PREVIEW = 1001;
+    private static final int REQUEST_IMPORT = 1002;
 
-    private static final List<String> IMAGE_EXTS = Arrays.asList(".png", ".jpg", ".jpeg", ".webp", ".gif");
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "firefly-import"));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -42,12 +51,16 @@ public class BackgroundChooseActivity extends Activity {
         setContentView(R.layout.activity_background_choose);
 
         prefsManager = new PreferencesManager(this);
+        thumbnailLoader = new ThumbnailLoader(this);
+        manifest = BackgroundManifest.get(this);
 
         recyclerView = findViewById(R.id.bg_recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         adapter = new PrefsAdapter();
         recyclerView.setAdapter(adapter);
 
+        findViewById(R.id.bg_import).setOnClickListener(v -> startImport());
+
         loadAssetImages();
     }
 
@@ -55,7 +68,14 @@ public class BackgroundChooseActivity extends Activity {
     protected void onResume() {
         super.onResume();
         // 重新读取 prefs 中的选中项并刷新列表显示（确保从预览返回后 UI 更新）
-        adapter.notifyDataSetChanged();
+        refreshSelection();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        thumbnailLoader.destroy();
+        importExecutor.shutdown();
     }
 
     @Override
@@ -64,34 +84,70 @@ public class BackgroundChooseActivity extends Activity {
         if (requestCode == REQUEST_PREVIEW) {
             // 预览页如果保存了设置会通过 RESULT_OK 返回，刷新显示
             if (resultCode == RESULT_OK) {
-                adapter.notifyDataSetChanged();
+                refreshSelection();
+            }
+        } else if (requestCode == REQUEST_IMPORT) {
+            if (resultCode == RESULT_OK && data != null && data.getData() != null) {
+                importImage(data.getData());
             }
         }
     }
 
-    private void loadAssetImages() {
-        AssetManager am = getAssets();
-        assetImages.clear(); // 防止重复添加
+    private void startImport() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("image/*");
         try {
-            String[] list = am.list("");
-            if (list != null) {
-                for (String name : list) {
-                    String lower = name.toLowerCase();
-                    for (String ext : IMAGE_EXTS) {
-                        if (lower.endsWith(ext)) {
-                            assetImages.add(name);
-                            break;
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+            startActivityForResult(intent, REQUEST_IMPORT);
+        } catch (ActivityNotFoundException e) {
+            // 部分手表系统没有文档选择器
+            Toast.makeText(this, "当前设备不支持选择文件", Toast.LENGTH_SHORT).show();
         }
+    }
+
+    private void importImage(Uri uri) {
+        Toast.makeText(this, "正在导入…", Toast.LENGTH_SHORT).show();
+        // 副本短边等于屏幕长边，100% 缩放时正好铺满表盘
+        int targetEdge = Math.max(getResources().getDisplayMetrics().widthPixels,
+                getResources().getDisplayMetrics().heightPixels);
+        importExecutor.execute(() -> {
+            String name = BackgroundImporter.importUri(this, uri, targetEdge);
+            runOnUiThread(() -> {
+                if (isDestroyed()) return;
+                if (name == null) {
+                    Toast.makeText(this, "导入失败", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                loadAssetImages();
+                // 导入后直接进入预览，确认后即设为背景
+                openPreview(name);
+            });
+        });
+    }
+
+    private void openPreview(String name) {
+        Intent intent = new Intent(BackgroundChooseActivity.this, BackgroundPreviewActivity.class);
+        intent.putExtra("asset_name", name);
+        // 使用 startActivityForResult，以便在预览保存后可以刷新
+        startActivityForResult(intent, REQUEST_PREVIEW);
+    }
+
+    private void refreshSelection() {
+        selectedFilename = prefsManager.getBackgroundFilename();
+        adapter.notifyDataSetChanged();
+    }
+
+    private void loadAssetImages() {
+        // 内置图片来自构建期生成的清单，不再每次启动列目录；其后是已导入的图片
+        assetImages.clear(); // 防止重复添加
+        assetImages.addAll(BackgroundManifest.get(this).names());
+        assetImages.addAll(BackgroundImporter.list(this));
         adapter.notifyDataSetChanged();
     }
 
     private class PrefsAdapter extends RecyclerView.Adapter<PrefsAdapter.VH> {
+        // 缩略图边长：与 item_background.xml 中 bg_thumb 的 48dp 一致
+        private final int thumbSize = Math.round(48 * getResources().getDisplayMetrics().density);
 
         @NonNull
         @Override
@@ -105,20 +161,24 @@ public class BackgroundChooseActivity extends Activity {
         public void onBindViewHolder(@NonNull VH holder, int position) {
             String name = assetImages.get(position);
             holder.name.setText(name);
+            // 解码完成前以清单中的主色调占位
+            holder.thumb.setBackgroundColor(manifest.dominantColor(name, Color.DKGRAY));
+            thumbnailLoader.load(holder.thumb, name, thumbSize);
 
-            String selected = prefsManager.getBackgroundFilename();
-            if (selected != null && selected.equals(name)) {
+            if (name.equals(selectedFilename)) {
                 holder.check.setVisibility(View.VISIBLE);
             } else {
                 holder.check.setVisibility(View.INVISIBLE);
             }
 
-            holder.itemView.setOnClickListener(v -> {
-                Intent intent = new Intent(BackgroundChooseActivity.this, BackgroundPreviewActivity.class);
-                intent.putExtra("asset_name", name);
-                // 使用 startActivityForResult，以便在预览保存后可以刷新
-                startActivityForResult(intent, REQUEST_PREVIEW);
-            });
+            holder.itemView.setOnClickListener(v -> openPreview(name));
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull VH holder) {
+            // 移出屏幕的条目不再需要缩略图，取消未完成的解码
+            thumbnailLoader.cancel(holder.thumb);
+            holder.thumb.setImageDrawable(null);
         }
 
         @Override
@@ -127,11 +187,13 @@ public class BackgroundChooseActivity extends Activity {
         }
 
         class VH extends RecyclerView.ViewHolder {
+            ImageView thumb;
             TextView name;
             ImageView check;
 
             VH(@NonNull View itemView) {
                 super(itemView);
+                thumb = itemView.findViewById(R.id.bg_thumb);
                 name = itemView.findViewById(R.id.bg_name);
                 check = itemView.findViewById(R.id.bg_check);
             }
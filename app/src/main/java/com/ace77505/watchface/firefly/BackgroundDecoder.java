@@ -0,0 +1,207 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.Build;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * BackgroundDecoder - 只解码背景图中心裁切区域
+ *
+ * 缩放 scalePercent > 100 时表盘只显示原图中心 100/pct 的区域：
+ * - 优先使用 BitmapRegionDecoder 仅解码该矩形，并配合 inSampleSize 采样（1000% 时只解码约 1% 像素）
+ * - 区域解码器不支持的格式（如 gif）回退为整图采样解码后再裁切
+ * - 所有读取都经由 open()，assets 内置图片与用户导入图片走同一套解码流程
+ */
+public class BackgroundDecoder {
+
+    private BackgroundDecoder() { }
+
+    /**
+     * 解码结果：位图 + 位图中对应裁切区域的矩形（区域解码时为整张位图）
+     */
+    public static class Result {
+        public final Bitmap bitmap;
+        public final Rect src;
+
+        Result(Bitmap bitmap, Rect src) {
+            this.bitmap = bitmap;
+            this.src = src;
+        }
+    }
+
+    /**
+     * 计算原图中心裁切区域（与 drawBackgroundDirect 原逻辑一致：srcW = origW * 100 / scalePct）
+     */
+    public static void centerCropRect(int width, int height, int scalePercent, Rect out) {
+        int pct = Math.max(100, scalePercent);
+        int srcW = Math.min(width, Math.max(1, width * 100 / pct));
+        int srcH = Math.min(height, Math.max(1, height * 100 / pct));
+        int left = Math.max(0, (width - srcW) / 2);
+        int top = Math.max(0, (height - srcH) / 2);
+        out.set(left, top, left + srcW, top + srcH);
+    }
+
+    /**
+     * 计算 2 的幂采样率：采样后裁切区域仍不小于目标尺寸
+     */
+    public static int calculateInSampleSize(int regionW, int regionH, int reqW, int reqH) {
+        int sample = 1;
+        while ((regionW / (sample * 2)) >= reqW && (regionH / (sample * 2)) >= reqH) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * 打开背景图输入流：导入的图片（BackgroundImporter.USER_PREFIX 开头）位于 filesDir，其余位于 assets
+     */
+    public static InputStream open(Context context, String filename) throws IOException {
+        if (BackgroundImporter.isUserImage(filename)) {
+            return new FileInputStream(BackgroundImporter.fileFor(context, filename));
+        }
+        return context.getAssets().open(filename);
+    }
+
+    /**
+     * 读取图片原始尺寸：优先取背景清单中的记录，清单缺失时才读取图片头（不解码像素）
+     * @return {width, height}，失败返回 null
+     */
+    public static int[] decodeSize(Context context, String filename) {
+        BackgroundManifest.Entry entry = BackgroundManifest.get(context).find(filename);
+        if (entry != null && entry.hasSize()) {
+            return new int[]{entry.width, entry.height};
+        }
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream is = open(context, filename)) {
+            BitmapFactory.decodeStream(is, null, bounds);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+        return new int[]{bounds.outWidth, bounds.outHeight};
+    }
+
+    /**
+     * 解码 filename 在 scalePercent 下可见的中心区域，采样到不小于 reqW x reqH
+     * （有预缩小版本时从版本解码，裁切比例相同，结果与原图一致）
+     * @return 解码结果，失败返回 null
+     */
+    public static Result decodeCenterCrop(Context context, String filename, int scalePercent, int reqW, int reqH) {
+        // 优先使用能覆盖目标尺寸的最小预缩小版本，解码像素数与读取量都随之减少
+        String source = filename;
+        int[] size;
+        BackgroundManifest.Entry entry = BackgroundManifest.get(context).find(filename);
+        BackgroundManifest.Variant variant = entry != null ? entry.pickVariant(scalePercent, reqW, reqH) : null;
+        if (variant != null) {
+            source = variant.path;
+            size = new int[]{variant.width, variant.height};
+        } else {
+            size = decodeSize(context, filename);
+        }
+        if (size == null) return null;
+
+        Rect region = new Rect();
+        centerCropRect(size[0], size[1], scalePercent, region);
+        int sample = calculateInSampleSize(region.width(), region.height(), reqW, reqH);
+
+        Bitmap bmp = decodeRegion(context, source, region, sample);
+        if (bmp != null) {
+            return new Result(bmp, new Rect(0, 0, bmp.getWidth(), bmp.getHeight()));
+        }
+        return decodeFullAndCrop(context, source, scalePercent, sample);
+    }
+
+    /**
+     * 使用 BitmapRegionDecoder 只解码 region 区域；格式不支持或失败时返回 null
+     */
+    public static Bitmap decodeRegion(Context context, String filename, Rect region, int sampleSize) {
+        BitmapRegionDecoder decoder = null;
+        try (InputStream is = open(context, filename)) {
+            decoder = newRegionDecoder(is);
+            if (decoder == null) return null;
+
+            BitmapFactory.Options opts = new BitmapFactory.Options();
+            opts.inSampleSize = sampleSize;
+            opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            return decoder.decodeRegion(region, opts);
+        } catch (IOException | IllegalArgumentException e) {
+            // 区域解码器不支持该格式，交由整图解码处理
+            return null;
+        } finally {
+            if (decoder != null) decoder.recycle();
+        }
+    }
+
+    /**
+     * 打开 filename 的区域解码器，供需要反复解码不同区域的调用方（如预览页）复用，使用完毕需 recycle()
+     * @return 解码器，格式不支持或失败返回 null
+     */
+    public static BitmapRegionDecoder openRegionDecoder(Context context, String filename) {
+        try (InputStream is = open(context, filename)) {
+            return newRegionDecoder(is);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 使用已打开的区域解码器解码 scalePercent 下可见的中心区域，采样到不小于 reqW x reqH
+     * 返回的位图即完整的可见区域，按 reqW x reqH 拉伸绘制即与表盘显示一致
+     * @return 位图，失败返回 null
+     */
+    public static Bitmap decodeCenterCrop(BitmapRegionDecoder decoder, int scalePercent, int reqW, int reqH) {
+        Rect region = new Rect();
+        centerCropRect(decoder.getWidth(), decoder.getHeight(), scalePercent, region);
+
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = calculateInSampleSize(region.width(), region.height(), reqW, reqH);
+        opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        try {
+            return decoder.decodeRegion(region, opts);
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public static BitmapRegionDecoder newRegionDecoder(InputStream is) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(is);
+        }
+        return BitmapRegionDecoder.newInstance(is, false);
+    }
+
+    /**
+     * 回退：整图采样解码，返回位图与其中心裁切区域
+     */
+    public static Result decodeFullAndCrop(Context context, String filename, int scalePercent, int sampleSize) {
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = sampleSize;
+        opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        Bitmap decoded;
+        try (InputStream is = open(context, filename)) {
+            decoded = BitmapFactory.decodeStream(is, null, opts);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (decoded == null) return null;
+
+        // 采样后的坐标系中重新计算中心裁切区域
+        Rect src = new Rect();
+        centerCropRect(decoded.getWidth(), decoded.getHeight(), scalePercent, src);
+        return new Result(decoded, src);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BackgroundImporter - 从本地存储导入背景图
+ *
+ * - 先以 inJustDecodeBounds 读取尺寸，再按 inSampleSize 流式采样解码，原图（相机照片等）不会完整进入内存
+ * - 按屏幕尺寸缩小（短边等于屏幕长边，保证 100% 缩放时铺满）、按 EXIF 方向旋正后保存为 JPEG
+ * - 保存在 filesDir/user 下，背景文件名为 "user/<名称>.jpg"；缩放设置与内置图片一样按文件名独立保存
+ * - 表盘只会读到该缩小后的副本
+ *
+ * importUri 有磁盘与解码操作，需在后台线程调用。
+ */
+public class BackgroundImporter {
+    public static final String USER_PREFIX = "user/";
+    public static final String USER_DIR = "user";
+    public static final int JPEG_QUALITY = 90;
+
+    private BackgroundImporter() { }
+
+    public static boolean isUserImage(String filename) {
+        return filename != null && filename.startsWith(USER_PREFIX);
+    }
+
+    public static File fileFor(Context context, String filename) {
+        return new File(context.getFilesDir(), filename);
+    }
+
+    /**
+     * 列出已导入的图片（背景文件名形式，按名称排序）
+     */
+    public static List<String> list(Context context) {
+        List<String> names = new ArrayList<>();
+        String[] files = new File(context.getFilesDir(), USER_DIR).list();
+        if (files == null) return names;
+        Arrays.sort(files);
+        for (String f : files) {
+            if (f.endsWith(".jpg")) names.add(USER_PREFIX + f);
+        }
+        return names;
+    }
+
+    /**
+     * 导入 uri 指向的图片
+     * @param targetEdge 保存副本的短边像素（一般为屏幕长边）
+     * @return 背景文件名（"user/..."），失败返回 null
+     */
+    public static String importUri(Context context, Uri uri, int targetEdge) {
+        ContentResolver resolver = context.getContentResolver();
+
+        // 1. 只读取尺寸
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream is = resolver.openInputStream(uri)) {
+            if (is == null) return null;
+            BitmapFactory.decodeStream(is, null, bounds);
+        } catch (IOException | SecurityException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        // 2. 采样解码：采样后短边仍不小于 targetEdge
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = BackgroundDecoder.calculateInSampleSize(
+                bounds.outWidth, bounds.outHeight, targetEdge, targetEdge);
+        opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap decoded;
+        try (InputStream is = resolver.openInputStream(uri)) {
+            if (is == null) return null;
+            decoded = BitmapFactory.decodeStream(is, null, opts);
+        } catch (IOException | SecurityException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (decoded == null) return null;
+
+        // 3. 缩小到目标尺寸并按 EXIF 方向旋正
+        Bitmap out = scaleAndRotate(decoded, targetEdge, readOrientation(resolver, uri));
+        if (out != decoded) decoded.recycle();
+
+        // 4. 写入 filesDir/user
+        String name = USER_PREFIX + uniqueName(context, displayName(resolver, uri));
+        boolean saved = save(out, fileFor(context, name));
+        out.recycle();
+        return saved ? name : null;
+    }
+
+    private static Bitmap scaleAndRotate(Bitmap src, int targetEdge, int orientation) {
+        Matrix m = new Matrix();
+        float scale = Math.min(1f, targetEdge / (float) Math.min(src.getWidth(), src.getHeight()));
+        m.postScale(scale, scale);
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                m.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                m.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                m.postRotate(270);
+                break;
+            default:
+                break;
+        }
+        if (m.isIdentity()) return src;
+        return Bitmap.createBitmap(src, 0, 0, src.getWidth(), src.getHeight(), m, true);
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri uri) {
+        try (InputStream is = resolver.openInputStream(uri)) {
+            if (is == null) return ExifInterface.ORIENTATION_NORMAL;
+            return new ExifInterface(is).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException | SecurityException e) {
+            // 非 JPEG 等无 EXIF 的格式
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static String displayName(ContentResolver resolver, Uri uri) {
+        try (Cursor c = resolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (c != null && c.moveToFirst()) {
+                String name = c.getString(0);
+                if (name != null) return name;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return "image";
+    }
+
+    /**
+     * 去掉扩展名与特殊字符；重名时追加序号
+     */
+    private static String uniqueName(Context context, String displayName) {
+        int dot = displayName.lastIndexOf('.');
+        String base = (dot > 0 ? displayName.substring(0, dot) : displayName)
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        if (base.isEmpty()) base = "image";
+
+        File dir = new File(context.getFilesDir(), USER_DIR);
+        String name = base + ".jpg";
+        for (int i = 2; new File(dir, name).exists(); i++) {
+            name = base + "_" + i + ".jpg";
+        }
+        return name;
+    }
+
+    private static boolean save(Bitmap bmp, File target) {
+        File dir = target.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) return false;
+        File tmp = new File(dir, target.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            bmp.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, fos);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return false;
+        }
+        // 先写临时文件再重命名，避免导入中断时留下半个文件
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ace77505.watchface.firefly;
+
+import android.graphics.Bitmap;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * BackgroundLoader - 在独立解码线程上异步、双缓冲地加载背景位图
+ *
+ * - request(...) 只提交任务，不阻塞调用线程（设置广播在主线程回调）
+ * - 新位图完整生成后才通过 AtomicReference 原子发布，发布前渲染线程继续绘制旧位图，不会出现白屏闪烁
+ * - 被替换的旧位图进入待回收队列，由渲染线程在下一帧开始时（已不再持有任何位图）调用 releaseRetired() 回收
+ */
+public class BackgroundLoader {
+
+    public interface Callback {
+        /** 新背景已发布（在解码线程回调） */
+        void onBackgroundReady();
+    }
+
+    private final BackgroundCache cache;
+    private final PreferencesManager prefsManager;
+    private final Callback callback;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "firefly-bg-decode");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    // 当前可绘制的位图（渲染线程读取）
+    private final AtomicReference<Bitmap> current = new AtomicReference<>();
+    // 已被替换、等待渲染线程释放后回收的位图
+    private final ConcurrentLinkedQueue<Bitmap> retired = new ConcurrentLinkedQueue<>();
+    // 请求代号：只有最新请求的结果才会被发布
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private String requestedKey;
+    private volatile boolean destroyed;
+
+    public BackgroundLoader(BackgroundCache cache, PreferencesManager prefsManager, Callback callback) {
+        this.cache = cache;
+        this.prefsManager = prefsManager;
+        this.callback = callback;
+    }
+
+    /**
+     * 请求加载 filename 在 scalePercent、width x height 下的背景；与上次成功（或仍在进行）的请求相同时忽略
+     */
+    public synchronized void request(String filename, int scalePercent, int width, int height) {
+        if (destroyed || filename == null || width <= 0 || height <= 0) return;
+
+        String key = BackgroundCache.cacheKey(filename, scalePercent, width, height);
+        if (key.equals(requestedKey)) return;
+        requestedKey = key;
+
+        final int gen = generation.incrementAndGet();
+        executor.execute(() -> {
+            Bitmap bmp = load(filename, scalePercent, width, height);
+            if (bmp == null) {
+                // 请求的图片解码失败：清除请求记录，之后相同的请求可以重试；
+                // 回退到默认图片时显示的也不是所请求的图片，同样不能视为已完成
+                clearRequested(gen);
+                bmp = loadDefault(filename, width, height);
+                if (bmp == null) return;
+            }
+            if (destroyed || gen != generation.get()) {
+                // 已有更新的请求，丢弃本次结果
+                bmp.recycle();
+                return;
+            }
+            publish(bmp);
+        });
+    }
+
+    private synchronized void clearRequested(int gen) {
+        if (gen == generation.get()) requestedKey = null;
+    }
+
+    private Bitmap load(String filename, int scalePercent, int width, int height) {
+        try {
+            return cache.load(filename, scalePercent, width, height);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // fallback to default if not same
+    private Bitmap loadDefault(String filename, int width, int height) {
+        if (PreferencesManager.DEFAULT_BACKGROUND_FILENAME.equals(filename)) return null;
+        int defaultScale = prefsManager.getBackgroundScale(PreferencesManager.DEFAULT_BACKGROUND_FILENAME);
+        return load(PreferencesManager.DEFAULT_BACKGROUND_FILENAME, defaultScale, width, height);
+    }
+
+    private void publish(Bitmap bmp) {
+        Bitmap old = current.getAndSet(bmp);
+        if (old != null) retired.offer(old);
+        if (callback != null) callback.onBackgroundReady();
+    }
+
+    /**
+     * 获取当前可绘制的位图（可能为 null：首次加载尚未完成）
+     */
+    public Bitmap getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * 回收已被替换的旧位图：只能在渲染线程、且本帧尚未获取位图时调用
+     */
+    public void releaseRetired() {
+        Bitmap old;
+        while ((old = retired.poll()) != null) {
+            if (!old.isRecycled()) old.recycle();
+        }
+    }
+
+    public void destroy() {
+        destroyed = true;
+        executor.shutdownNow();
+        releaseRetired();
+        Bitmap bmp = current.getAndSet(null);
+        if (bmp != null && !bmp.isRecycled()) bmp.recycle();
+    }
+}
@@ -0,0 +1,197 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Color;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BackgroundManifest - 背景图清单（构建期由 app/build.gradle 的 generateBackgroundManifest 生成）
+ *
+ * - 进程内只读取一次 assets/background_manifest.json，之后列表、尺寸、主色调均直接取内存数据
+ * - 清单缺失（例如未经 Gradle 打包的调试环境）时回退为扫描 assets 根目录，此时尺寸与颜色未知
+ * - 每张图可带若干构建期预缩小版本（assets/bg_variants/），解码时选取能覆盖目标尺寸的最小版本
+ */
+public final class BackgroundManifest {
+    public static final String ASSET_NAME = "background_manifest.json";
+
+    public static final List<String> IMAGE_EXTS = Arrays.asList(".png", ".jpg", ".jpeg", ".webp", ".gif");
+
+    /**
+     * 预缩小版本：assets 内路径 + 像素尺寸（与原图同宽高比）
+     */
+    public static class Variant {
+        public final String path;
+        public final int width;
+        public final int height;
+
+        Variant(String path, int width, int height) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static class Entry {
+        public final String name;
+        public final String format;
+        // 像素尺寸，未知时为 0
+        public final int width;
+        public final int height;
+        // 主色调（ARGB），可用作解码完成前的占位色
+        public final int dominantColor;
+        // 平均亮度 0..1
+        public final float luminance;
+        // 预缩小版本，按尺寸从小到大
+        public final List<Variant> variants;
+
+        Entry(String name, String format, int width, int height, int dominantColor, float luminance,
+              List<Variant> variants) {
+            this.name = name;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.dominantColor = dominantColor;
+            this.luminance = luminance;
+            this.variants = variants;
+        }
+
+        public boolean hasSize() {
+            return width > 0 && height > 0;
+        }
+
+        /**
+         * 选取在 scalePercent 缩放下，可见中心区域仍不小于 reqW x reqH 的最小预缩小版本
+         * @return 版本，没有足够大的版本（应解码原图）时返回 null
+         */
+        public Variant pickVariant(int scalePercent, int reqW, int reqH) {
+            int pct = Math.max(100, scalePercent);
+            for (Variant v : variants) {
+                if ((long) v.width * 100 / pct >= reqW && (long) v.height * 100 / pct >= reqH) {
+                    return v;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static BackgroundManifest instance;
+
+    public final List<Entry> entries;
+    private final Map<String, Entry> byName = new HashMap<>();
+
+    private BackgroundManifest(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        for (Entry e : entries) {
+            byName.put(e.name, e);
+        }
+    }
+
+    public static synchronized BackgroundManifest get(Context context) {
+        if (instance == null) {
+            AssetManager am = context.getApplicationContext().getAssets();
+            List<Entry> entries = read(am);
+            if (entries == null) entries = scan(am);
+            instance = new BackgroundManifest(entries);
+        }
+        return instance;
+    }
+
+    /**
+     * @return 清单中的条目，不存在返回 null
+     */
+    public Entry find(String name) {
+        return name == null ? null : byName.get(name);
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            names.add(e.name);
+        }
+        return names;
+    }
+
+    /**
+     * 主色调，未知时返回 fallback
+     */
+    public int dominantColor(String name, int fallback) {
+        Entry e = find(name);
+        return e != null && e.hasSize() ? e.dominantColor : fallback;
+    }
+
+    private static List<Entry> read(AssetManager am) {
+        try (InputStream is = am.open(ASSET_NAME)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(is.available());
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = is.read(buf)) > 0) {
+                bos.write(buf, 0, n);
+            }
+            JSONArray images = new JSONObject(new String(bos.toByteArray(), StandardCharsets.UTF_8))
+                    .getJSONArray("images");
+
+            List<Entry> entries = new ArrayList<>(images.length());
+            for (int i = 0; i < images.length(); i++) {
+                JSONObject o = images.getJSONObject(i);
+                List<Variant> variants = new ArrayList<>();
+                JSONArray vs = o.optJSONArray("variants");
+                if (vs != null) {
+                    for (int j = 0; j < vs.length(); j++) {
+                        JSONObject v = vs.getJSONObject(j);
+                        variants.add(new Variant(v.getString("name"), v.getInt("width"), v.getInt("height")));
+                    }
+                }
+                entries.add(new Entry(
+                        o.getString("name"),
+                        o.optString("format"),
+                        o.optInt("width"),
+                        o.optInt("height"),
+                        o.optInt("dominantColor", Color.BLACK),
+                        (float) o.optDouble("luminance", 0),
+                        variants));
+            }
+            return entries;
+        } catch (IOException | JSONException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static List<Entry> scan(AssetManager am) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            String[] list = am.list("");
+            if (list != null) {
+                Arrays.sort(list);
+                for (String name : list) {
+                    String lower = name.toLowerCase();
+                    for (String ext : IMAGE_EXTS) {
+                        if (lower.endsWith(ext)) {
+                            entries.add(new Entry(name, ext.substring(1), 0, 0, Color.BLACK, 0f,
+                                    Collections.<Variant>emptyList()));
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return entries;
+    }
+}
@@ -2,9 +2,9 @@ package com.ace77505.watchface.firefly;
 
 import android.app.Activity;
 import android.app.AlertDialog;
-import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Color;
 import android.os.Bundle;
 import android.text.InputFilter;
 import android.text.InputType;
@@ -14,16 +14,18 @@ import android.widget.ImageView;
 import android.widget.EditText;
 import android.widget.Toast;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * BackgroundPreviewActivity
- * - 预览选中 asset 图片
+ * - 预览选中 asset 图片：只按预览区域尺寸解码当前缩放下可见的中心区域（BitmapRegionDecoder + inSampleSize），
+ *   并与表盘相同地拉伸铺满（FIT_XY），预览即表盘实际显示效果；不生成整图或放大后的中间位图
+ * - 区域解码器在页面存续期间保持打开，缩放变化时在后台线程重新解码，只显示最新一次请求的结果
  * - 底部有圆形确认按钮（资源 btn_confirm）
  * - 单击图片隐藏/显示确认按钮
  * - 长按图片弹出输入框：只允许 100..1000 的正整数，默认 100，表示缩放 %
- * - 点击确认按钮：保存背景文件名与该图片的缩放百分比到 prefs，发送 PREF_CHANGED_ACTION，然后 finish()
+ * - 点击确认按钮：保存背景文件名与该图片的缩放百分比到 prefs，通知表盘刷新，然后 finish()
  */
 public class BackgroundPreviewActivity extends Activity {
 
@@ -34,6 +36,14 @@ public class BackgroundPreviewActivity extends Activity {
     private String assetName;
     private int currentScalePercent;
 
+    // 预览解码：单线程执行，区域解码器只在该线程上使用
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "firefly-preview"));
+    private BitmapRegionDecoder regionDecoder;
+    private boolean regionDecoderOpened;
+    // 每次请求递增；旧请求的结果到达时已过期则丢弃
+    private volatile int previewGeneration;
+    private Bitmap previewBitmap;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -53,7 +63,11 @@ public class BackgroundPreviewActivity extends Activity {
         // 为当前 asset 使用独立的缩放值（若未设置则使用默认 100）
         currentScalePercent = prefsManager.getBackgroundScale(assetName);
 
-        loadAndShowPreview();
+        imageView.setScaleType(ImageView.ScaleType.FIT_XY);
+        // 解码完成前以清单中的主色调占位
+        imageView.setBackgroundColor(BackgroundManifest.get(this).dominantColor(assetName, Color.BLACK));
+        // 等待布局完成后按预览区域实际尺寸解码
+        imageView.post(this::loadAndShowPreview);
 
         // 单击切换按钮显隐
         imageView.setOnClickListener(v -> {
@@ -71,13 +85,11 @@ public class BackgroundPreviewActivity extends Activity {
         });
 
         btnConfirm.setOnClickListener(v -> {
-            // 保存所选背景文件名
-            prefsManager.setBackgroundFilename(assetName);
-            // 保存该文件对应的缩放（每个文件独立）
-            prefsManager.setBackgroundScale(assetName, currentScalePercent);
-
-            // 触发表盘刷新
-            sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
+            // 保存所选背景文件名与该文件对应的缩放（每个文件独立），一次提交并触发表盘刷新
+            prefsManager.edit()
+                    .setBackgroundFilename(assetName)
+                    .setBackgroundScale(assetName, currentScalePercent)
+                    .apply();
 
             // 不再显示保存成功的 Toast；通过 setResult 通知上层
             setResult(RESULT_OK);
@@ -85,20 +97,71 @@ public class BackgroundPreviewActivity extends Activity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // 解码器在解码线程上释放，避免与进行中的解码并发
+        decodeExecutor.execute(() -> {
+            if (regionDecoder != null) {
+                regionDecoder.recycle();
+                regionDecoder = null;
+            }
+        });
+        decodeExecutor.shutdown();
+    }
+
     private void loadAndShowPreview() {
-        try (InputStream is = getAssets().open(assetName)) {
-            Bitmap bmp = BitmapFactory.decodeStream(is);
+        int w = imageView.getWidth();
+        int h = imageView.getHeight();
+        if (w <= 0 || h <= 0) {
+            w = getResources().getDisplayMetrics().widthPixels;
+            h = getResources().getDisplayMetrics().heightPixels;
+        }
+        final int reqW = w;
+        final int reqH = h;
+        final int scale = currentScalePercent;
+        final int generation = ++previewGeneration;
+
+        decodeExecutor.execute(() -> {
+            if (generation != previewGeneration) return; // 已有更新的请求
+            Bitmap bmp = decodePreview(scale, reqW, reqH);
             if (bmp == null) return;
+            runOnUiThread(() -> {
+                if (generation != previewGeneration || isDestroyed()) {
+                    bmp.recycle();
+                    return;
+                }
+                Bitmap old = previewBitmap;
+                previewBitmap = bmp;
+                imageView.setImageBitmap(bmp);
+                if (old != null) old.recycle();
+            });
+        });
+    }
 
-            // 以 currentScalePercent 缩放（以图片中心为基准放大/缩小），并使用 CENTER_CROP 显示中心区域
-            int scaledW = Math.max(1, bmp.getWidth() * currentScalePercent / 100);
-            int scaledH = Math.max(1, bmp.getHeight() * currentScalePercent / 100);
-            Bitmap scaled = Bitmap.createScaledBitmap(bmp, scaledW, scaledH, true);
+    /**
+     * 在解码线程上执行：解码 scale 下可见的中心区域
+     */
+    private Bitmap decodePreview(int scale, int reqW, int reqH) {
+        if (!regionDecoderOpened) {
+            regionDecoderOpened = true;
+            regionDecoder = BackgroundDecoder.openRegionDecoder(this, assetName);
+        }
+        if (regionDecoder != null) {
+            return BackgroundDecoder.decodeCenterCrop(regionDecoder, scale, reqW, reqH);
+        }
 
-            imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
-            imageView.setImageBitmap(scaled);
-        } catch (IOException e) {
-            e.printStackTrace();
+        // 区域解码器不支持的格式（如 gif）：整图采样解码后只保留裁切区域
+        BackgroundDecoder.Result decoded = BackgroundDecoder.decodeCenterCrop(this, assetName, scale, reqW, reqH);
+        if (decoded == null) return null;
+        if (decoded.src.width() == decoded.bitmap.getWidth() && decoded.src.height() == decoded.bitmap.getHeight()) {
+            return decoded.bitmap;
+        }
+        try {
+            return Bitmap.createBitmap(decoded.bitmap, decoded.src.left, decoded.src.top,
+                    decoded.src.width(), decoded.src.height());
+        } finally {
+            decoded.bitmap.recycle();
         }
     }
 
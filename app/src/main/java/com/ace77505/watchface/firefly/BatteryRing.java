@@ -1,12 +1,10 @@
 package com.ace77505.watchface.firefly;
 
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.os.BatteryManager;
 
 /**
  * 电量环：实例可配置颜色 / 厚度缩放 / 内缩（位置）
@@ -29,6 +27,10 @@ public class BatteryRing {
     private float thicknessRatio = DEFAULT_THICKNESS_RATIO;
     private float insetRatio = DEFAULT_INSET_RATIO;
 
+    // 火焰贴图模式：开启时火焰以预渲染图集绘制（一次位图拷贝），否则逐帧绘制多层圆
+    private boolean flameSpriteMode = false;
+    private final FlameSprite flameSprite = new FlameSprite();
+
     public BatteryRing(Context context) {
         this.context = context.getApplicationContext();
         this.paint = new Paint();
@@ -48,6 +50,27 @@ public class BatteryRing {
         this.ringColor = color;
     }
 
+    /**
+     * 切换火焰贴图模式；关闭时释放图集
+     */
+    public void setFlameSpriteMode(boolean enabled) {
+        this.flameSpriteMode = enabled;
+        if (!enabled) flameSprite.release();
+    }
+
+    public boolean isFlameSpriteMode() {
+        return flameSpriteMode;
+    }
+
+    public void release() {
+        flameSprite.release();
+    }
+
+    /** 火焰贴图图集（未启用贴图模式时为 null） */
+    public Bitmap getFlameSpriteBitmap() {
+        return flameSprite.getBitmap();
+    }
+
     // 兼容性方法：由内部查询电量并绘制（保留以兼容旧调用）
     public void draw(Canvas canvas, PolarCoord polar, float[] tmp) {
         float batteryLevel = getBatteryLevel();
@@ -56,17 +79,25 @@ public class BatteryRing {
 
     /**
      * 主绘制接口：使用外部传入的 batteryLevel（避免每帧系统查询）
+     * 等价于 drawRing + drawFlame
      */
     public void draw(Canvas canvas, PolarCoord polar, float[] tmp, float batteryLevel) {
+        drawRing(canvas, polar, batteryLevel);
+        drawFlame(canvas, polar, tmp, batteryLevel);
+    }
+
+    /**
+     * 仅绘制电量弧线（静态部分，只随电量变化）
+     */
+    public void drawRing(Canvas canvas, PolarCoord polar, float batteryLevel) {
         float cx = polar.getCenterX();
         float cy = polar.getCenterY();
         float radius = polar.getMaxRadius();
 
         batteryLevel = Math.max(0f, Math.min(1f, batteryLevel));
 
-        float outerRadius = radius * insetRatio;
         float ringThickness = radius * thicknessRatio;
-        float ringCenterRadius = outerRadius - ringThickness / 2f;
+        float ringCenterRadius = getRingCenterRadius(radius);
 
         // 可选：背景环（保持默认关闭）
         // 绘制电量填充
@@ -93,41 +124,47 @@ public class BatteryRing {
         );
 
         paint.setStrokeCap(prevCap);
+        paint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * 仅绘制弧线终点的燃烧特效（动态部分，每帧绘制）
+     */
+    public void drawFlame(Canvas canvas, PolarCoord polar, float[] tmp, float batteryLevel) {
+        batteryLevel = Math.max(0f, Math.min(1f, batteryLevel));
+        float sweepAngle = 360f * batteryLevel;
 
         // 终点燃烧点（和燃烧特效）
         if (batteryLevel > 0f && sweepAngle > 0f) {
-            float endAngleDeg = startAngle + sweepAngle;
-            polar.toCartesianDegOut(endAngleDeg, ringCenterRadius, tmp);
+            float radius = polar.getMaxRadius();
+            float endAngleDeg = -90f + sweepAngle;
+            polar.toCartesianDegOut(endAngleDeg, getRingCenterRadius(radius), tmp);
             float dotX = tmp[0];
             float dotY = tmp[1];
 
-            FlameEffect.draw(canvas, paint, dotX, dotY, radius, batteryLevel);
+            if (flameSpriteMode) {
+                flameSprite.draw(canvas, dotX, dotY, radius, batteryLevel);
+            } else {
+                FlameEffect.draw(canvas, paint, dotX, dotY, radius, batteryLevel);
+            }
         }
 
         paint.setStyle(Paint.Style.STROKE);
     }
 
+    /**
+     * 环中心线半径（像素）
+     */
+    public float getRingCenterRadius(float radius) {
+        float outerRadius = radius * insetRatio;
+        float ringThickness = radius * thicknessRatio;
+        return outerRadius - ringThickness / 2f;
+    }
+
+    /**
+     * 当前电量：读取进程内共享的电量快照（不再每次调用都查询系统服务 / 注册粘性广播）
+     */
     public float getBatteryLevel() {
-        try {
-            BatteryManager bm = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
-            if (bm != null) {
-                int capacity = bm.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
-                if (capacity > 0 && capacity <= 100) {
-                    return capacity / 100f;
-                }
-            }
-            IntentFilter ifilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-            Intent batteryStatus = context.registerReceiver(null, ifilter);
-            if (batteryStatus != null) {
-                int level = batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
-                int scale = batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
-                if (level >= 0 && scale > 0) {
-                    return (float) level / (float) scale;
-                }
-            }
-        } catch (Exception e) {
-            // ignore
-        }
-        return 0.75f;
+        return BatteryStateProvider.get(context).getSnapshot().level;
     }
 }
\ No newline at end of file
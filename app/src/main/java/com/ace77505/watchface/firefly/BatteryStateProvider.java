@@ -0,0 +1,119 @@
+package com.ace77505.watchface.firefly;
+
+import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 进程内共享的电量状态
+ *
+ * - 全进程只注册一个 ACTION_BATTERY_CHANGED 接收器（首次 get() 时），注册返回的粘性广播即为初始状态
+ * - 状态以不可变 Snapshot 通过 volatile 引用发布，任意线程无锁读取
+ * - 只有取整后的百分比变化时才通知监听者（充电状态等变化只更新快照），监听者据此重绘即可，无需每帧查询
+ */
+public final class BatteryStateProvider {
+
+    /** 电量未知（尚未收到广播）时使用的默认值 */
+    public static final float DEFAULT_LEVEL = 0.75f;
+
+    public static final class Snapshot {
+        // 0..1
+        public final float level;
+        // 取整百分比 0..100
+        public final int percent;
+        public final boolean charging;
+        // BatteryManager.BATTERY_PLUGGED_*，未接电源为 0
+        public final int plugType;
+
+        Snapshot(float level, boolean charging, int plugType) {
+            this.level = level;
+            this.percent = Math.round(level * 100);
+            this.charging = charging;
+            this.plugType = plugType;
+        }
+    }
+
+    public interface Listener {
+        /** 百分比变化（在主线程回调） */
+        void onBatteryChanged(Snapshot snapshot);
+    }
+
+    private static BatteryStateProvider instance;
+
+    private volatile Snapshot snapshot = new Snapshot(DEFAULT_LEVEL, false, 0);
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context ctx, Intent intent) {
+            try {
+                update(intent);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    };
+
+    @SuppressLint("UnspecifiedRegisterReceiverFlag")
+    private BatteryStateProvider(Context context) {
+        IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+        Intent sticky = null;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+                sticky = context.registerReceiver(receiver, filter, Context.RECEIVER_NOT_EXPORTED);
+            } else {
+                sticky = context.registerReceiver(receiver, filter);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (sticky != null) update(sticky);
+    }
+
+    public static synchronized BatteryStateProvider get(Context context) {
+        if (instance == null) {
+            instance = new BatteryStateProvider(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void register(Listener l) {
+        listeners.addIfAbsent(l);
+    }
+
+    public void unregister(Listener l) {
+        listeners.remove(l);
+    }
+
+    private void update(Intent intent) {
+        if (!Intent.ACTION_BATTERY_CHANGED.equals(intent.getAction())) return;
+        int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        if (level < 0 || scale <= 0) return;
+
+        int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, BatteryManager.BATTERY_STATUS_UNKNOWN);
+        boolean charging = status == BatteryManager.BATTERY_STATUS_CHARGING
+                || status == BatteryManager.BATTERY_STATUS_FULL;
+        int plugType = intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0);
+
+        Snapshot previous = snapshot;
+        Snapshot next = new Snapshot((float) level / (float) scale, charging, plugType);
+        snapshot = next;
+
+        if (next.percent != previous.percent) {
+            for (Listener l : listeners) {
+                l.onBatteryChanged(next);
+            }
+        }
+    }
+}
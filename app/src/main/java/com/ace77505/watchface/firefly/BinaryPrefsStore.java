@@ -0,0 +1,453 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 紧凑二进制配置存储（可选，由 BuildConfig.BINARY_CONFIG_STORE 开启），实现 SharedPreferences 接口，
+ * 供 PreferencesManager 替换 watchface_prefs XML
+ *
+ * 文件 files/watchface_config.bin（小端）：
+ *   magic(int) | formatVersion(int) | presentMask(long)
+ *   | 固定槽位：按 FIXED_KEYS 顺序，每个槽位定长（int/float/long 4 或 8 字节、boolean 1 字节），未设置的槽位同样占位
+ *   | 背景文件名：len(short) + UTF-8（len = -1 表示未设置）
+ *   | 缩放表：count(int) + count * [len(short) + UTF-8 文件名 + percent(int)]，按文件名排序
+ *
+ * - 冷启动一次性读入整个文件（单次 read）后解析，不做 XML 解析
+ * - 首次运行（二进制文件不存在）时从旧的 XML prefs 迁移
+ * - 进程内单例；apply() 立即更新内存，在单独线程写入临时文件后改名替换
+ * - 只支持 PreferencesManager 定义的键及其类型，其余键或类型不符（包括 String Set）写入时抛 IllegalArgumentException
+ */
+public class BinaryPrefsStore implements SharedPreferences {
+    public static final String FILE_NAME = "watchface_config.bin";
+    public static final int MAGIC = 0x46464346; // "FFCF"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte T_INT = 0;
+    private static final byte T_FLOAT = 1;
+    private static final byte T_BOOLEAN = 2;
+    private static final byte T_LONG = 3;
+
+    // 固定槽位（顺序即文件布局）：增删或调整槽位时递增 FORMAT_VERSION；版本不符的文件视为无效，重新从 XML prefs 迁移
+    private static final String[] FIXED_KEYS = {
+            PreferencesManager.KEY_TIME_COLOR,
+            PreferencesManager.KEY_DATE_COLOR,
+            PreferencesManager.KEY_BATTERY_RING_ENABLED,
+            PreferencesManager.KEY_TIME_DIR,
+            PreferencesManager.KEY_TIME_DIST,
+            PreferencesManager.KEY_TIME_SIZE,
+            PreferencesManager.KEY_DATE_DIR,
+            PreferencesManager.KEY_DATE_DIST,
+            PreferencesManager.KEY_DATE_SIZE,
+            PreferencesManager.KEY_BATTERY_DIR,
+            PreferencesManager.KEY_BATTERY_DIST,
+            PreferencesManager.KEY_BATTERY_SIZE,
+            PreferencesManager.KEY_BATTERY_COLOR,
+            PreferencesManager.KEY_BATTERY_RING_COLOR,
+            PreferencesManager.KEY_FRAME_POLICY,
+            PreferencesManager.KEY_FLAME_SPRITE_MODE,
+            PreferencesManager.KEY_DEBUG_HUD,
+    };
+    private static final byte[] FIXED_TYPES = {
+            T_INT, T_INT, T_BOOLEAN,
+            T_FLOAT, T_FLOAT, T_FLOAT,
+            T_FLOAT, T_FLOAT, T_FLOAT,
+            T_FLOAT, T_FLOAT, T_FLOAT,
+            T_INT, T_INT, T_INT,
+            T_BOOLEAN, T_BOOLEAN,
+    };
+
+    private static final String SCALE_PREFIX = PreferencesManager.KEY_BACKGROUND_SCALE + "_";
+
+    private static BinaryPrefsStore instance;
+
+    private final File file;
+    private final Object lock = new Object();
+    // 内存中的全部取值（键 -> Integer/Float/Boolean/Long/String），写入时复制，读取无锁
+    private volatile Map<String, Object> values = Collections.emptyMap();
+    private final ArrayList<OnSharedPreferenceChangeListener> listeners = new ArrayList<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "firefly-config-write");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private long loadNanos;
+
+    public static synchronized BinaryPrefsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new BinaryPrefsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private BinaryPrefsStore(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+        long start = System.nanoTime();
+        Map<String, Object> loaded = null;
+        if (file.isFile()) {
+            try {
+                loaded = read(file);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        if (loaded == null) {
+            // 首次运行（或文件损坏）：从旧的 XML prefs 迁移
+            loaded = migrate(context.getSharedPreferences(PreferencesManager.PREF_NAME, Context.MODE_PRIVATE));
+            writeFile(loaded);
+        }
+        values = loaded;
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /** 冷启动加载（含迁移）耗时 */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    // ---------------------
+    // 编解码
+    // ---------------------
+
+    private static int fixedIndex(String key) {
+        for (int i = 0; i < FIXED_KEYS.length; i++) {
+            if (FIXED_KEYS[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isSupported(String key, Object value) {
+        if (key == null) return false;
+        if (PreferencesManager.KEY_BACKGROUND_FILENAME.equals(key)) return value instanceof String;
+        if (key.startsWith(SCALE_PREFIX)) return value instanceof Integer;
+        int idx = fixedIndex(key);
+        if (idx < 0) return false;
+        switch (FIXED_TYPES[idx]) {
+            case T_INT: return value instanceof Integer;
+            case T_FLOAT: return value instanceof Float;
+            case T_BOOLEAN: return value instanceof Boolean;
+            default: return value instanceof Long;
+        }
+    }
+
+    private static Map<String, Object> migrate(SharedPreferences legacy) {
+        HashMap<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, ?> e : legacy.getAll().entrySet()) {
+            if (isSupported(e.getKey(), e.getValue())) out.put(e.getKey(), e.getValue());
+        }
+        return out;
+    }
+
+    private static Map<String, Object> read(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int off = 0;
+            while (off < data.length) {
+                int n = in.read(data, off, data.length - off);
+                if (n < 0) throw new IOException("truncated " + file);
+                off += n;
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt() != MAGIC) throw new IOException("bad header " + file);
+        int version = buf.getInt();
+        if (version != FORMAT_VERSION) throw new IOException("bad version " + version + " " + file);
+        long present = buf.getLong();
+
+        HashMap<String, Object> out = new HashMap<>();
+        for (int i = 0; i < FIXED_KEYS.length; i++) {
+            Object v;
+            switch (FIXED_TYPES[i]) {
+                case T_INT: v = buf.getInt(); break;
+                case T_FLOAT: v = buf.getFloat(); break;
+                case T_BOOLEAN: v = buf.get() != 0; break;
+                default: v = buf.getLong(); break;
+            }
+            if ((present & (1L << i)) != 0) out.put(FIXED_KEYS[i], v);
+        }
+
+        String filename = readString(buf);
+        if (filename != null) out.put(PreferencesManager.KEY_BACKGROUND_FILENAME, filename);
+
+        int count = buf.getInt();
+        for (int i = 0; i < count; i++) {
+            String name = readString(buf);
+            out.put(SCALE_PREFIX + name, buf.getInt());
+        }
+        return out;
+    }
+
+    private static byte[] encode(Map<String, Object> values) {
+        TreeMap<String, Integer> scales = new TreeMap<>();
+        int size = 4 + 4 + 8 + 2 + 4;
+        for (byte type : FIXED_TYPES) {
+            size += type == T_BOOLEAN ? 1 : type == T_LONG ? 8 : 4;
+        }
+        byte[] filename = null;
+        Object fn = values.get(PreferencesManager.KEY_BACKGROUND_FILENAME);
+        if (fn instanceof String) {
+            filename = ((String) fn).getBytes(StandardCharsets.UTF_8);
+            size += filename.length;
+        }
+        for (Map.Entry<String, Object> e : values.entrySet()) {
+            if (e.getKey().startsWith(SCALE_PREFIX) && e.getValue() instanceof Integer) {
+                String name = e.getKey().substring(SCALE_PREFIX.length());
+                scales.put(name, (Integer) e.getValue());
+                size += 2 + name.getBytes(StandardCharsets.UTF_8).length + 4;
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(FORMAT_VERSION);
+        long present = 0L;
+        for (int i = 0; i < FIXED_KEYS.length; i++) {
+            if (values.containsKey(FIXED_KEYS[i])) present |= 1L << i;
+        }
+        buf.putLong(present);
+        for (int i = 0; i < FIXED_KEYS.length; i++) {
+            Object v = values.get(FIXED_KEYS[i]);
+            switch (FIXED_TYPES[i]) {
+                case T_INT: buf.putInt(v instanceof Integer ? (Integer) v : 0); break;
+                case T_FLOAT: buf.putFloat(v instanceof Float ? (Float) v : 0f); break;
+                case T_BOOLEAN: buf.put((byte) (Boolean.TRUE.equals(v) ? 1 : 0)); break;
+                default: buf.putLong(v instanceof Long ? (Long) v : 0L); break;
+            }
+        }
+        if (filename == null) {
+            buf.putShort((short) -1);
+        } else {
+            buf.putShort((short) filename.length).put(filename);
+        }
+        buf.putInt(scales.size());
+        for (Map.Entry<String, Integer> e : scales.entrySet()) {
+            byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+            buf.putShort((short) name.length).put(name).putInt(e.getValue());
+        }
+        return buf.array();
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getShort();
+        if (len < 0) return null;
+        String s = new String(buf.array(), buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+
+    private boolean writeFile(Map<String, Object> snapshot) {
+        File tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(encode(snapshot));
+            out.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return false;
+        }
+        return tmp.renameTo(file);
+    }
+
+    // ---------------------
+    // SharedPreferences
+    // ---------------------
+
+    @Override
+    public Map<String, ?> getAll() {
+        return new HashMap<>(values);
+    }
+
+    /**
+     * 当前全部取值的只读视图，不复制：写入时整体替换 values 而不原地修改，返回的 Map 之后不会再变化
+     */
+    public Map<String, ?> snapshot() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public String getString(String key, String defValue) {
+        Object v = values.get(key);
+        return v instanceof String ? (String) v : defValue;
+    }
+
+    @Override
+    public Set<String> getStringSet(String key, Set<String> defValues) {
+        return defValues;
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        Object v = values.get(key);
+        return v instanceof Integer ? (Integer) v : defValue;
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        Object v = values.get(key);
+        return v instanceof Long ? (Long) v : defValue;
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        Object v = values.get(key);
+        return v instanceof Float ? (Float) v : defValue;
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        Object v = values.get(key);
+        return v instanceof Boolean ? (Boolean) v : defValue;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public SharedPreferences.Editor edit() {
+        return new EditorImpl();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            if (!listeners.contains(listener)) listeners.add(listener);
+        }
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.remove(listener);
+        }
+    }
+
+    private class EditorImpl implements SharedPreferences.Editor {
+        private final HashMap<String, Object> staged = new HashMap<>();
+        private final ArrayList<String> removed = new ArrayList<>();
+        private boolean clear;
+
+        private SharedPreferences.Editor stage(String key, Object value) {
+            if (!isSupported(key, value)) {
+                throw new IllegalArgumentException("unsupported config key: " + key
+                        + " (" + value.getClass().getSimpleName() + ")");
+            }
+            staged.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putString(String key, String value) {
+            if (value == null) return remove(key);
+            return stage(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putStringSet(String key, Set<String> values) {
+            if (values == null) return remove(key);
+            return stage(key, values);
+        }
+
+        @Override
+        public SharedPreferences.Editor putInt(String key, int value) { return stage(key, value); }
+
+        @Override
+        public SharedPreferences.Editor putLong(String key, long value) { return stage(key, value); }
+
+        @Override
+        public SharedPreferences.Editor putFloat(String key, float value) { return stage(key, value); }
+
+        @Override
+        public SharedPreferences.Editor putBoolean(String key, boolean value) { return stage(key, value); }
+
+        @Override
+        public SharedPreferences.Editor remove(String key) {
+            staged.remove(key);
+            removed.add(key);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        /**
+         * 合并到内存并返回新的快照；无变化时返回 null
+         */
+        private Map<String, Object> commitToMemory(ArrayList<String> changedKeys) {
+            synchronized (lock) {
+                HashMap<String, Object> next = clear ? new HashMap<>() : new HashMap<>(values);
+                for (String key : removed) {
+                    if (next.remove(key) != null) changedKeys.add(key);
+                }
+                for (Map.Entry<String, Object> e : staged.entrySet()) {
+                    Object old = next.put(e.getKey(), e.getValue());
+                    if (!e.getValue().equals(old)) changedKeys.add(e.getKey());
+                }
+                if (changedKeys.isEmpty() && !clear) return null;
+                values = next;
+                return next;
+            }
+        }
+
+        private void notifyListeners(ArrayList<String> changedKeys) {
+            ArrayList<OnSharedPreferenceChangeListener> copy;
+            synchronized (lock) {
+                if (listeners.isEmpty()) return;
+                copy = new ArrayList<>(listeners);
+            }
+            for (String key : changedKeys) {
+                for (OnSharedPreferenceChangeListener l : copy) {
+                    l.onSharedPreferenceChanged(BinaryPrefsStore.this, key);
+                }
+            }
+        }
+
+        @Override
+        public boolean commit() {
+            ArrayList<String> changedKeys = new ArrayList<>();
+            Map<String, Object> snapshot = commitToMemory(changedKeys);
+            if (snapshot == null) return true;
+            boolean ok;
+            synchronized (writer) {
+                ok = writeFile(snapshot);
+            }
+            notifyListeners(changedKeys);
+            return ok;
+        }
+
+        @Override
+        public void apply() {
+            ArrayList<String> changedKeys = new ArrayList<>();
+            Map<String, Object> snapshot = commitToMemory(changedKeys);
+            if (snapshot == null) return;
+            writer.execute(() -> {
+                // 只写入最新快照：排队期间若已有更新的提交，跳过旧快照
+                if (snapshot != values) return;
+                synchronized (writer) {
+                    writeFile(snapshot);
+                }
+            });
+            notifyListeners(changedKeys);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ace77505.watchface.firefly;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.wear.watchface.CanvasComplication;
+import androidx.wear.watchface.DrawMode;
+import androidx.wear.watchface.RenderParameters;
+import androidx.wear.watchface.TapEvent;
+import androidx.wear.watchface.WatchState;
+import androidx.wear.watchface.complications.data.ComplicationData;
+import androidx.wear.watchface.complications.rendering.CanvasComplicationDrawable;
+import androidx.wear.watchface.complications.rendering.ComplicationDrawable;
+import androidx.wear.watchface.style.WatchFaceLayer;
+
+import java.time.ZonedDateTime;
+
+/**
+ * 带缓存层的表盘组件：交互模式下把 ComplicationDrawable 绘制到槽位大小的缓存位图，
+ * 只有数据变化（loadData）、槽位尺寸变化或跨分钟（时间相关文本）时才重绘，其余帧只做一次位图拷贝
+ *
+ * - 环境模式、点击高亮期间直接交给 CanvasComplicationDrawable 实时绘制（低位/防烙印处理由其负责）
+ * - 图标按库的默认方式异步加载：加载完成时 ComplicationDrawable 经 Drawable.Callback 请求重绘，
+ *   此时同样视为数据变化，缓存层在下一帧重绘
+ */
+public class CachedComplication extends CanvasComplicationDrawable {
+
+    private Bitmap layer;
+    private Canvas layerCanvas;
+    private int dataVersion;
+    private int layerDataVersion = -1;
+    private long layerMinute = -1;
+    // 重绘缓存层期间对 drawable 的设置也会触发 invalidate，忽略这些回调
+    private boolean drawingLayer;
+
+    // 包装库设置的 Drawable.Callback；Drawable 只弱引用 callback，须由本对象持有
+    private final Drawable.Callback drawableCallback;
+
+    public CachedComplication(@NonNull ComplicationDrawable drawable, @NonNull WatchState watchState,
+                              @NonNull CanvasComplication.InvalidateCallback invalidateCallback) {
+        super(drawable, watchState, invalidateCallback);
+
+        Drawable.Callback libraryCallback = drawable.getCallback();
+        drawableCallback = new Drawable.Callback() {
+            @Override
+            public void invalidateDrawable(@NonNull Drawable who) {
+                if (drawingLayer) return;
+                dataVersion++;
+                if (libraryCallback != null) libraryCallback.invalidateDrawable(who);
+            }
+
+            @Override
+            public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+                if (libraryCallback != null) libraryCallback.scheduleDrawable(who, what, when);
+            }
+
+            @Override
+            public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+                if (libraryCallback != null) libraryCallback.unscheduleDrawable(who, what);
+            }
+        };
+        drawable.setCallback(drawableCallback);
+    }
+
+    @Override
+    public void loadData(@NonNull ComplicationData complicationData, boolean loadDrawablesAsynchronous) {
+        super.loadData(complicationData, loadDrawablesAsynchronous);
+        dataVersion++;
+    }
+
+    @Override
+    public void render(@NonNull Canvas canvas, @NonNull Rect bounds, @NonNull ZonedDateTime zonedDateTime,
+                       @NonNull RenderParameters renderParameters, int slotId) {
+        if (!renderParameters.getWatchFaceLayers().contains(WatchFaceLayer.COMPLICATIONS)) return;
+
+        if (renderParameters.getDrawMode() != DrawMode.INTERACTIVE
+                || isTapHighlighted(zonedDateTime, renderParameters, slotId)
+                || bounds.width() <= 0 || bounds.height() <= 0) {
+            super.render(canvas, bounds, zonedDateTime, renderParameters, slotId);
+            return;
+        }
+
+        long minute = zonedDateTime.toEpochSecond() / 60;
+        if (layer == null || layer.getWidth() != bounds.width() || layer.getHeight() != bounds.height()) {
+            releaseLayer();
+            layer = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(layer);
+            layerDataVersion = -1;
+        }
+        if (layerDataVersion != dataVersion || layerMinute != minute) {
+            ComplicationDrawable drawable = getDrawable();
+            layer.eraseColor(Color.TRANSPARENT);
+            drawingLayer = true;
+            try {
+                drawable.setInAmbientMode(false);
+                drawable.setHighlighted(false);
+                drawable.setCurrentTime(zonedDateTime.toInstant());
+                drawable.setBounds(0, 0, bounds.width(), bounds.height());
+                drawable.draw(layerCanvas);
+            } finally {
+                drawingLayer = false;
+            }
+            layerDataVersion = dataVersion;
+            layerMinute = minute;
+        }
+        canvas.drawBitmap(layer, bounds.left, bounds.top, null);
+    }
+
+    private boolean isTapHighlighted(ZonedDateTime zonedDateTime, RenderParameters renderParameters, int slotId) {
+        TapEvent tap = renderParameters.getLastComplicationTapDownEvents().get(slotId);
+        if (tap == null) return false;
+        long sinceTap = zonedDateTime.toInstant().toEpochMilli() - tap.getTapTime().toEpochMilli();
+        return sinceTap >= 0 && sinceTap < getDrawable().getHighlightDuration();
+    }
+
+    public void releaseLayer() {
+        if (layer != null && !layer.isRecycled()) layer.recycle();
+        layer = null;
+        layerCanvas = null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ace77505.watchface.firefly;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内配置变更总线：设置界面与表盘同进程，变更直接回调监听者，不再经由系统广播往返
+ *
+ * - publish() 只把变更分区按位或进待分发掩码；掩码从 0 变为非 0 时才向 executor 提交一次分发，
+ *   分发前的多次提交合并为一次回调（掩码为各次的并集）
+ * - 回调在 executor 上执行（应用内为主线程 Handler），监听者在回调里重建配置快照即可
+ *
+ * 纯 Java 实现（不依赖 android.*），便于在 JVM 上做基准测试。
+ */
+public class ConfigBus {
+
+    public interface Listener {
+        /**
+         * @param sections 自上次回调以来变更的分区（PreferencesManager.CHANGED_*）
+         */
+        void onConfigChanged(int sections);
+    }
+
+    private final Executor executor;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Runnable dispatchTask = this::dispatch;
+
+    public ConfigBus(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void register(Listener l) {
+        listeners.addIfAbsent(l);
+    }
+
+    public void unregister(Listener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * 发布变更（任意线程）
+     */
+    public void publish(int sections) {
+        if (sections == 0) return;
+        int previous = pending.getAndAccumulate(sections, (a, b) -> a | b);
+        if (previous == 0) {
+            executor.execute(dispatchTask);
+        }
+    }
+
+    private void dispatch() {
+        int sections = pending.getAndSet(0);
+        if (sections == 0) return;
+        for (Listener l : listeners) {
+            try {
+                l.onConfigChanged(sections);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ace77505.watchface.firefly;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import java.util.Locale;
+
+/**
+ * 表盘调试信息叠加层（开发者选项）
+ * - 实测 FPS / 目标 FPS、掉帧数
+ * - 各绘制阶段耗时 p50 / p95 / p99（毫秒）：逐帧阶段（blit / flame / total）按帧统计，
+ *   静态层重建阶段（r.*）只统计发生重建的帧，并显示样本数
+ * - 表盘持有的位图内存
+ * - 配置冷启动加载耗时
+ *
+ * 文本每秒只格式化一次，其余帧直接复用上次的字符串。
+ */
+public class DebugHud {
+    public static final long REFRESH_INTERVAL_MS = 1000L;
+
+    private final Paint textPaint = new Paint();
+    private final Paint bgPaint = new Paint();
+    private final String[] lines = new String[FrameStats.STAGE_COUNT + 3];
+    private long lastRefreshMs;
+
+    public DebugHud() {
+        textPaint.setAntiAlias(true);
+        textPaint.setColor(Color.GREEN);
+        textPaint.setTextAlign(Paint.Align.LEFT);
+        textPaint.setTypeface(Typeface.MONOSPACE);
+
+        bgPaint.setColor(Color.BLACK);
+        bgPaint.setAlpha(170);
+        bgPaint.setStyle(Paint.Style.FILL);
+    }
+
+    public void draw(Canvas canvas, Rect bounds, FrameStats stats, int targetFps, long bitmapBytes,
+                     long configLoadNanos) {
+        long now = System.currentTimeMillis();
+        if (lines[0] == null || now - lastRefreshMs >= REFRESH_INTERVAL_MS) {
+            lastRefreshMs = now;
+            refresh(stats, targetFps, bitmapBytes, configLoadNanos);
+        }
+
+        float size = Math.min(bounds.width(), bounds.height()) * 0.04f;
+        textPaint.setTextSize(size);
+        float lineHeight = size * 1.2f;
+        float blockHeight = lineHeight * lines.length;
+        float left = bounds.left + bounds.width() * 0.18f;
+        float right = bounds.right - bounds.width() * 0.18f;
+        float top = bounds.exactCenterY() - blockHeight / 2f;
+
+        canvas.drawRect(left - size * 0.5f, top - size * 0.3f, right, top + blockHeight + size * 0.3f, bgPaint);
+        float y = top + size;
+        for (String line : lines) {
+            canvas.drawText(line, left, y, textPaint);
+            y += lineHeight;
+        }
+    }
+
+    private void refresh(FrameStats stats, int targetFps, long bitmapBytes, long configLoadNanos) {
+        lines[0] = String.format(Locale.US, "fps %.1f/%d drop %d",
+                stats.measuredFps(), targetFps, stats.getDroppedFrames());
+        for (int s = 0; s < FrameStats.STAGE_COUNT; s++) {
+            String line = String.format(Locale.US, "%-6s %.2f %.2f %.2f",
+                    FrameStats.STAGE_NAMES[s],
+                    stats.percentileNanos(s, 50) / 1e6f,
+                    stats.percentileNanos(s, 95) / 1e6f,
+                    stats.percentileNanos(s, 99) / 1e6f);
+            if (s >= FrameStats.STAGE_REBUILD_BG) {
+                line += String.format(Locale.US, " n%d", stats.sampleCount(s));
+            }
+            lines[s + 1] = line;
+        }
+        lines[lines.length - 2] = String.format(Locale.US, "bmp %d KB", bitmapBytes / 1024);
+        lines[lines.length - 1] = String.format(Locale.US, "cfg %.2f ms", configLoadNanos / 1e6f);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ace77505.watchface.firefly;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+/**
+ * 时间数字字形图集：将 0-9 与 ':' 预先绘制到一张位图中
+ *
+ * - 以 (字体, 字号) 为键，只有字号（timeSizeScale / bounds）变化时才重建
+ * - 图集为 ALPHA_8 字形蒙版，绘制时以画笔颜色着色，颜色变化只需重新着色、无需重建
+ * - HH:mm 绘制为最多 5 次位图拷贝，字宽在重建时预先测量，居中无需 measureText
+ * - 每个字形的左上角取整到像素、不开启位图过滤，蒙版 1:1 拷贝，不会因小数位置被双线性重采样而发虚
+ */
+public class DigitGlyphAtlas {
+    private static final String GLYPHS = "0123456789:";
+    private static final int COLON_INDEX = 10;
+
+    // 每个字形左右/上下预留的像素，防止抗锯齿边缘被裁掉
+    private static final int PAD = 2;
+
+    private Bitmap atlas;
+    private final int[] cellLeft = new int[GLYPHS.length()];
+    private final int[] cellWidth = new int[GLYPHS.length()];
+    private final float[] advances = new float[GLYPHS.length()];
+    private float ascent;
+    private float descent;
+    private int cellHeight;
+
+    // 当前图集对应的键
+    private Typeface keyTypeface;
+    private float keyTextSize = -1f;
+
+    private final Rect src = new Rect();
+    private final Rect dst = new Rect();
+    private final Paint blitPaint = new Paint();
+
+    /**
+     * 确保图集与 paint 的字体/字号一致（不一致时重建），并以 paint 的颜色着色
+     */
+    public void ensure(Paint paint) {
+        blitPaint.setColor(paint.getColor());
+        if (atlas != null && !atlas.isRecycled()
+                && keyTypeface == paint.getTypeface()
+                && keyTextSize == paint.getTextSize()) {
+            return;
+        }
+        rebuild(paint);
+    }
+
+    private void rebuild(Paint paint) {
+        release();
+
+        keyTypeface = paint.getTypeface();
+        keyTextSize = paint.getTextSize();
+
+        Paint p = new Paint(paint);
+        p.setTextAlign(Paint.Align.LEFT);
+        // 蒙版只记录覆盖度，颜色在绘制时由 blitPaint 提供
+        p.setColor(Color.BLACK);
+
+        Paint.FontMetrics fm = p.getFontMetrics();
+        ascent = fm.ascent;
+        descent = fm.descent;
+        cellHeight = (int) Math.ceil(descent - ascent) + PAD * 2;
+
+        int x = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            advances[i] = p.measureText(GLYPHS, i, i + 1);
+            cellLeft[i] = x;
+            cellWidth[i] = (int) Math.ceil(advances[i]) + PAD * 2;
+            x += cellWidth[i];
+        }
+
+        atlas = Bitmap.createBitmap(Math.max(1, x), Math.max(1, cellHeight), Bitmap.Config.ALPHA_8);
+        Canvas c = new Canvas(atlas);
+        float baseline = PAD - ascent;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            c.drawText(GLYPHS, i, i + 1, cellLeft[i] + PAD, baseline, p);
+        }
+    }
+
+    /**
+     * HH:mm 的总宽度（字宽之和）
+     */
+    public float measureTime(int hour, int minute) {
+        return advances[hour / 10] + advances[hour % 10] + advances[COLON_INDEX]
+                + advances[minute / 10] + advances[minute % 10];
+    }
+
+    /** 字体 ascent（负值），用于与 drawText 相同的垂直居中计算 */
+    public float getAscent() { return ascent; }
+
+    public float getDescent() { return descent; }
+
+    /**
+     * 以 (centerX, baselineY) 为基准水平居中绘制 HH:mm
+     */
+    public void drawTime(Canvas canvas, int hour, int minute, float centerX, float baselineY) {
+        float x = centerX - measureTime(hour, minute) / 2f;
+        x = drawGlyph(canvas, hour / 10, x, baselineY);
+        x = drawGlyph(canvas, hour % 10, x, baselineY);
+        x = drawGlyph(canvas, COLON_INDEX, x, baselineY);
+        x = drawGlyph(canvas, minute / 10, x, baselineY);
+        drawGlyph(canvas, minute % 10, x, baselineY);
+    }
+
+    private float drawGlyph(Canvas canvas, int index, float x, float baselineY) {
+        int left = cellLeft[index];
+        src.set(left, 0, left + cellWidth[index], cellHeight);
+        int dstLeft = Math.round(x) - PAD;
+        int dstTop = Math.round(baselineY + ascent) - PAD;
+        dst.set(dstLeft, dstTop, dstLeft + cellWidth[index], dstTop + cellHeight);
+        canvas.drawBitmap(atlas, src, dst, blitPaint);
+        return x + advances[index];
+    }
+
+    public Bitmap getBitmap() {
+        return atlas;
+    }
+
+    public void release() {
+        if (atlas != null && !atlas.isRecycled()) atlas.recycle();
+        atlas = null;
+    }
+}
@@ -1,115 +1,92 @@
 package com.ace77505.watchface.firefly;
 
-import android.annotation.SuppressLint;
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.content.res.AssetFileDescriptor;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.os.Build;
-import android.os.BatteryManager;
 import android.view.SurfaceHolder;
 
 import androidx.annotation.NonNull;
 import androidx.wear.watchface.CanvasType;
+import androidx.wear.watchface.ComplicationSlot;
+import androidx.wear.watchface.ComplicationSlotsManager;
+import androidx.wear.watchface.DrawMode;
+import androidx.wear.watchface.RenderParameters;
 import androidx.wear.watchface.Renderer;
 import androidx.wear.watchface.WatchState;
 import androidx.wear.watchface.style.CurrentUserStyleRepository;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
- * DigitalRenderer - 使用 srcRect->dstRect 绘制背景以避免中间大图分配（更稳健）
+ * DigitalRenderer - 背景预先生成为与表盘等大的位图（BackgroundCache）；
+ * 交互模式由 FaceCompositor 将背景与时间/日期/电量等静态内容合成到静态层，每分钟（或电量/配置变化时）重建一次，
+ * 每帧只绘制静态层 + 火焰特效
  */
 public class DigitalRenderer extends Renderer.CanvasRenderer {
-    // 原始背景位图（直接从 assets 解码并保留）
-    public Bitmap backgroundBitmap;
+    // 背景位图（与表盘等大，已完成裁切缩放，可 1:1 绘制），由 backgroundLoader 在解码线程异步生成并原子发布
+    public final BackgroundCache backgroundCache;
+    public final BackgroundLoader backgroundLoader;
 
-    // 画笔
-    public final Paint timePaint = new Paint();
-    public final Paint datePaint = new Paint();
-    public final Paint batteryTextPaint = new Paint();
+    // 背景位图对应的表盘尺寸（初始为屏幕尺寸，首帧以 bounds 为准）
+    public volatile int surfaceWidth;
+    public volatile int surfaceHeight;
 
-    // 电量环
-    public final BatteryRing batteryRing;
+    // 交互模式合成（静态层 + 火焰特效）
+    public final FaceCompositor compositor;
+
+    // 环境模式（常亮省电）画笔：与交互模式完全分离，切换回交互模式时无需恢复状态
+    public final Paint ambientTimePaint = new Paint();
+
+    // 环境模式防烧屏：每分钟按此表轮换像素偏移（单位 px）
+    public static final int[][] BURN_IN_OFFSETS = {
+            {0, 0}, {2, 1}, {-1, 2}, {-2, -1}, {1, -2}
+    };
+
+    // 表盘状态（环境模式、低位色、烧屏保护等）
+    public final WatchState watchState;
 
     // 偏好/上下文/接收器
     public final PreferencesManager prefsManager;
     public final Context context;
-    public final BroadcastReceiver settingsReceiver;
+    public final ConfigBus.Listener configListener;
 
-    // 当前颜色值与开关
-    public int timeColor = Color.BLACK;
-    public int dateColor = Color.BLACK;
-    public boolean batteryRingEnabled = true;
+    // 配置快照：设置变化时整体替换，渲染线程每帧只读取一次
+    public volatile WatchFaceConfig config;
+    // 渲染线程上最近一次已应用（调度策略/火焰模式/背景请求等）的快照
+    public WatchFaceConfig appliedConfig;
 
-    // 背景当前使用的文件名与缩放（从 prefs 读取）
-    public String backgroundFilename;
-    public int backgroundScalePercent;
-
-    // 时间/日期格式
+    // 环境模式时间格式
     public final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-    public final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEE, MMM d");
 
-    // 复用的极坐标实例与临时数组（避免每帧分配）
+    // 环境模式复用的极坐标实例与临时数组（避免每帧分配）
     public final PolarCoord polar = new PolarCoord(0f, 0f, 1f);
     public final float[] coordTmp = new float[2];
+    public final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
 
-    // 缓存电量（由广播更新）
-    public volatile float cachedBatteryLevel = 0.75f;
-
-    // 电量广播接收器（仅一次注册）
-    public final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context ctx, Intent intent) {
-            try {
-                if (Intent.ACTION_BATTERY_CHANGED.equals(intent.getAction())) {
-                    int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
-                    int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
-                    if (level >= 0 && scale > 0) {
-                        cachedBatteryLevel = (float) level / (float) scale;
-                    }
-                }
-            } catch (Exception ignored) { }
-        }
-    };
-
-    // 元素参数（从 prefs 读取并缓存）
-    public float timeDirDeg;
-    public float timeDistRatio;
-    public float timeSizeScale;
-
-    public float dateDirDeg;
-    public float dateDistRatio;
-    public float dateSizeScale;
+    // 帧率调度（按动画/电量动态调整帧间隔）
+    public final FrameScheduler frameScheduler = new FrameScheduler();
+    public long appliedFrameDelayMillis;
 
-    public float batteryDirDeg;
-    public float batteryDistRatio;
-    public float batterySizeScale;
+    // 帧耗时统计与调试信息叠加（开发者选项）
+    public final FrameStats frameStats = new FrameStats();
+    public final DebugHud debugHud = new DebugHud();
 
-    // 电池文本颜色（独立）
-    public int batteryElementColor = Color.WHITE;
+    // 表盘组件槽位（FireflyComplications），绘制在静态层与火焰之上
+    public final ComplicationSlot[] complicationSlots;
 
-    // 电量环默认锁定颜色（硬编码为原始默认）
-    public static final int LOCKED_BATTERY_RING_COLOR = Color.parseColor("#FFA04A");
-    public static final float LOCKED_BATTERY_RING_INSET = 0.97f; // 97% 内缩（固定）
-    public static final float LOCKED_BATTERY_RING_SIZE_SCALE = 1.0f; // 厚度不缩放（固定）
+    // 进程内共享的电量状态：渲染时读取快照，百分比变化时回调重绘（空闲时不连续出帧，依赖事件刷新）
+    public final BatteryStateProvider batteryState;
+    public final BatteryStateProvider.Listener batteryListener = snapshot -> postInvalidate();
 
-    @SuppressLint("UnspecifiedRegisterReceiverFlag")
     public DigitalRenderer(
             SurfaceHolder surfaceHolder,
             CurrentUserStyleRepository currentUserStyleRepository,
             WatchState watchState,
+            ComplicationSlotsManager complicationSlotsManager,
             long frameDelayMillis,
             Context context
     ) {
@@ -122,340 +99,270 @@ public class DigitalRenderer extends Renderer.CanvasRenderer {
         );
 
         this.context = context.getApplicationContext();
+        this.watchState = watchState;
+        // 槽位集合在表盘生命周期内不变，预先转为数组，逐帧遍历不分配迭代器
+        this.complicationSlots = complicationSlotsManager.getComplicationSlots().values()
+                .toArray(new ComplicationSlot[0]);
+        this.appliedFrameDelayMillis = frameDelayMillis;
 
         prefsManager = new PreferencesManager(this.context);
+        backgroundCache = new BackgroundCache(this.context);
+        backgroundLoader = new BackgroundLoader(backgroundCache, prefsManager, this::postInvalidate);
+        surfaceWidth = this.context.getResources().getDisplayMetrics().widthPixels;
+        surfaceHeight = this.context.getResources().getDisplayMetrics().heightPixels;
 
         initPaints();
+        compositor = new FaceCompositor(this.context, frameStats);
 
-        this.batteryRing = new BatteryRing(this.context);
-
-        try {
-            timeColor = prefsManager.getTimeColor();
-            dateColor = prefsManager.getDateColor();
-            batteryRingEnabled = prefsManager.isBatteryRingEnabled();
-            loadElementPrefs();
-        } catch (Throwable t) {
-            t.printStackTrace();
-            backgroundBitmap = null;
-        }
-
-        settingsReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context ctx, Intent intent) {
-                try {
-                    if (PreferencesManager.PREF_CHANGED_ACTION.equals(intent.getAction())) {
-                        timeColor = prefsManager.getTimeColor();
-                        dateColor = prefsManager.getDateColor();
-                        batteryRingEnabled = prefsManager.isBatteryRingEnabled();
-                        loadElementPrefs();
-                        invalidate();
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
+        // 设置变化经进程内 ConfigBus 在主线程回调（多次提交合并为一次）：
+        // 只重新读取变更的分区，渲染线程再按分区版本只失效受影响的缓存
+        configListener = sections -> {
+            reloadConfig(sections);
+            invalidate();
         };
+        PreferencesManager.getConfigBus().register(configListener);
 
-        IntentFilter filter = new IntentFilter(PreferencesManager.PREF_CHANGED_ACTION);
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                this.context.registerReceiver(settingsReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
-            } else {
-                this.context.registerReceiver(settingsReceiver, filter);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        reloadConfig(PreferencesManager.CHANGED_ALL);
+        // 构造时即应用首个快照，背景解码无需等到首帧
+        applyConfig(config);
 
-        IntentFilter batteryFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                this.context.registerReceiver(batteryReceiver, batteryFilter, Context.RECEIVER_NOT_EXPORTED);
-            } else {
-                this.context.registerReceiver(batteryReceiver, batteryFilter);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        batteryState = BatteryStateProvider.get(this.context);
+        batteryState.register(batteryListener);
     }
 
     public void initPaints() {
-        timePaint.setAntiAlias(true);
-        timePaint.setDither(true);
-        timePaint.setColor(timeColor);
-        timePaint.setTextAlign(Paint.Align.CENTER);
-        timePaint.setTypeface(Typeface.create("sans-serif-medium", Typeface.NORMAL));
-        timePaint.setStyle(Paint.Style.FILL);
-
-        datePaint.setAntiAlias(true);
-        datePaint.setDither(true);
-        datePaint.setColor(dateColor);
-        datePaint.setTextAlign(Paint.Align.CENTER);
-        datePaint.setTypeface(Typeface.create("sans-serif", Typeface.NORMAL));
-        datePaint.setStyle(Paint.Style.FILL);
-
-        batteryTextPaint.setAntiAlias(true);
-        batteryTextPaint.setDither(true);
-        batteryTextPaint.setColor(batteryElementColor);
-        batteryTextPaint.setTextAlign(Paint.Align.CENTER);
-        batteryTextPaint.setTypeface(Typeface.create("sans-serif-medium", Typeface.NORMAL));
-        batteryTextPaint.setStyle(Paint.Style.FILL);
+        ambientTimePaint.setColor(Color.WHITE);
+        ambientTimePaint.setTextAlign(Paint.Align.CENTER);
+        ambientTimePaint.setTypeface(Typeface.create("sans-serif-light", Typeface.NORMAL));
     }
 
     /**
-     * 从 prefs 读取 element 参数与背景文件/缩放并加载背景原图（不在此处做大图缩放）
+     * 从 prefs 一次性构建新的配置快照并发布（渲染线程下一帧起读取新快照）
+     * @param sections 变更的分区（PreferencesManager.CHANGED_*）
      */
-    public void loadElementPrefs() {
+    public void reloadConfig(int sections) {
+        WatchFaceConfig previous = config;
         try {
-            // 时间
-            timeDirDeg = prefsManager.getTimeDirection();
-            timeDistRatio = prefsManager.getTimeDistance();
-            timeSizeScale = prefsManager.getTimeSize();
-
-            // 日期
-            dateDirDeg = prefsManager.getDateDirection();
-            dateDistRatio = prefsManager.getDateDistance();
-            dateSizeScale = prefsManager.getDateSize();
-
-            // 电池
-            batteryDirDeg = prefsManager.getBatteryDirection();
-            batteryDistRatio = prefsManager.getBatteryDistance();
-            batterySizeScale = prefsManager.getBatterySize();
-            batteryElementColor = prefsManager.getBatteryColor();
-
-            batteryRing.setConfig(
-                    LOCKED_BATTERY_RING_INSET,
-                    LOCKED_BATTERY_RING_SIZE_SCALE,
-                    LOCKED_BATTERY_RING_COLOR
-            );
-
-            String filename = prefsManager.getBackgroundFilename();
-            int scalePct = prefsManager.getBackgroundScale(filename);
-
-            backgroundFilename = filename;
-            backgroundScalePercent = scalePct;
-
-            // 直接加载原始背景位图（small memory), 解码失败会回退到默认或 null
-            loadBackgroundBitmap(filename);
+            config = WatchFaceConfig.load(prefsManager, previous, sections);
         } catch (Exception e) {
             e.printStackTrace();
-            backgroundBitmap = null;
-            backgroundFilename = null;
-            backgroundScalePercent = PreferencesManager.DEFAULT_BACKGROUND_SCALE;
+            if (previous == null) config = WatchFaceConfig.defaults();
         }
     }
 
     /**
-     * 从 assets 加载背景图片（原图）
-     * 若失败，尝试回退到 DEFAULT_BACKGROUND_FILENAME
+     * 在渲染线程应用快照中非绘制类的配置；各分区版本未变化时跳过对应工作
      */
-    public void loadBackgroundBitmap(String filename) {
-        backgroundBitmap = null;
-        if (filename == null) return;
-
-        try {
-            // Prefer open() which works for compressed assets; openFd may fail for compressed assets
-            try (InputStream is = context.getAssets().open(filename)) {
-                backgroundBitmap = BitmapFactory.decodeStream(is);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            // fallback to default if not same
-            if (!PreferencesManager.DEFAULT_BACKGROUND_FILENAME.equals(filename)) {
-                try (InputStream is2 = context.getAssets().open(PreferencesManager.DEFAULT_BACKGROUND_FILENAME)) {
-                    backgroundBitmap = BitmapFactory.decodeStream(is2);
-                    backgroundFilename = PreferencesManager.DEFAULT_BACKGROUND_FILENAME;
-                    backgroundScalePercent = prefsManager.getBackgroundScale(backgroundFilename);
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    backgroundBitmap = null;
-                }
-            } else {
-                backgroundBitmap = null;
-            }
+    public void applyConfig(WatchFaceConfig cfg) {
+        WatchFaceConfig prev = appliedConfig;
+        if (prev == cfg) return;
+        appliedConfig = cfg;
+
+        frameScheduler.setPolicy(cfg.framePolicy);
+        if (prev == null || prev.ringVersion != cfg.ringVersion) {
+            compositor.batteryRing.setFlameSpriteMode(cfg.flameSpriteMode);
+        }
+        // 只有背景文件或缩放变化时才重新解码
+        if (prev == null || prev.backgroundVersion != cfg.backgroundVersion) {
+            requestBackground(cfg);
         }
     }
 
+    /**
+     * 请求加载与表盘等大的背景位图（由 BackgroundLoader 在解码线程完成，不阻塞调用线程）
+     * 若失败，解码线程会尝试回退到 DEFAULT_BACKGROUND_FILENAME
+     */
+    public void requestBackground(WatchFaceConfig cfg) {
+        compositor.backgroundPlaceholderColor = BackgroundManifest.get(context)
+                .dominantColor(cfg.backgroundFilename, Color.WHITE);
+        backgroundLoader.request(cfg.backgroundFilename, cfg.backgroundScalePercent, surfaceWidth, surfaceHeight);
+    }
+
+    /**
+     * bounds 尺寸与当前背景位图不一致时（首次出帧或屏幕尺寸变化）重新生成背景
+     */
+    public void ensureBackgroundSize(Rect bounds, WatchFaceConfig cfg) {
+        int w = bounds.width();
+        int h = bounds.height();
+        if (w <= 0 || h <= 0) return;
+        if (w == surfaceWidth && h == surfaceHeight) return;
+
+        surfaceWidth = w;
+        surfaceHeight = h;
+        requestBackground(cfg);
+    }
+
+    /**
+     * 当前帧是否处于环境模式（常亮省电）
+     */
+    public boolean isAmbientMode() {
+        return getRenderParameters().getDrawMode() == DrawMode.AMBIENT;
+    }
+
     @Override
     public void render(@NonNull Canvas canvas, @NonNull Rect bounds, @NonNull ZonedDateTime dateTime) {
-        try {
-            float cx = bounds.exactCenterX();
-            float cy = bounds.exactCenterY();
-            float radius = Math.min(bounds.width(), bounds.height()) * 0.5f;
-            polar.update(cx, cy, radius);
+        // 上一帧已结束，此时回收被替换下来的旧背景是安全的
+        backgroundLoader.releaseRetired();
 
-            drawBackgroundDirect(canvas, bounds);
+        // 本帧只读取一次配置快照
+        WatchFaceConfig cfg = config;
+        applyConfig(cfg);
 
-            if (batteryRingEnabled) {
-                batteryRing.draw(canvas, polar, coordTmp, cachedBatteryLevel);
-            }
+        if (isAmbientMode()) {
+            frameStats.breakSequence();
+            renderAmbient(canvas, bounds, dateTime, cfg);
+            renderComplications(canvas, dateTime);
+            return;
+        }
+
+        frameStats.beginFrame(frameScheduler.isAnimating() ? appliedFrameDelayMillis : 0L);
+        try {
+            ensureBackgroundSize(bounds, cfg);
+
+            float batteryLevel = batteryState.getSnapshot().level;
+            applyFrameSchedule(cfg, batteryLevel);
 
-            drawDigitalTime(canvas, polar, dateTime);
-            drawBatteryText(canvas, polar);
+            compositor.renderInteractive(canvas, bounds, dateTime, batteryLevel, cfg, backgroundLoader.getCurrent());
+            renderComplications(canvas, dateTime);
         } catch (Exception e) {
             e.printStackTrace();
             canvas.drawColor(Color.WHITE);
         }
+        frameStats.endFrame();
+
+        if (cfg.debugHud) {
+            debugHud.draw(canvas, bounds, frameStats, frameScheduler.getEffectiveFps(), getBitmapMemoryBytes(),
+                    PreferencesManager.getConfigLoadNanos());
+        }
     }
 
     /**
-     * 使用 bitmap 的 srcRect -> dstRect 绘制背景（以图片中心为基准裁切），避免创建大中间 Bitmap
-     * 逻辑：
-     *  - scalePct >= 100（我们保证用户输入范围），若 scalePct == 100 则使用整张图片 src
-     *  - 当 scalePct > 100 时，裁切出原图中心区域：srcW = origW * 100 / scalePct, srcH = origH * 100 / scalePct
-     *  - 将 srcRect 绘制到 dstRect(bounds)，实现“中心放大到 scalePct% 然后填满表盘”
+     * 绘制表盘组件：交互模式下各槽位只拷贝各自的缓存层（CachedComplication），数据变化时才重绘
+     * 槽位是否启用由用户样式决定（FireflyComplications.COMPLICATIONS_SETTING_ID，在系统表盘编辑界面切换）
      */
-    public void drawBackgroundDirect(Canvas canvas, Rect bounds) {
-        if (backgroundBitmap == null || backgroundBitmap.isRecycled()) {
-            canvas.drawColor(Color.WHITE);
-            return;
+    public void renderComplications(Canvas canvas, ZonedDateTime dateTime) {
+        RenderParameters params = getRenderParameters();
+        for (ComplicationSlot slot : complicationSlots) {
+            if (slot.isEnabled()) {
+                slot.render(canvas, dateTime, params);
+            }
         }
+    }
 
-        try {
-            int bw = backgroundBitmap.getWidth();
-            int bh = backgroundBitmap.getHeight();
-            if (bw <= 0 || bh <= 0) {
-                canvas.drawColor(Color.WHITE);
-                return;
-            }
+    /**
+     * 表盘当前持有的位图内存（背景 + 交互模式合成的静态层、字形图集、火焰图集）
+     */
+    public long getBitmapMemoryBytes() {
+        return FaceCompositor.bitmapBytes(backgroundLoader.getCurrent()) + compositor.getBitmapMemoryBytes();
+    }
+
+    /**
+     * 按 FrameScheduler 的结果调整交互模式帧间隔；帧率为 FPS_IDLE 时 shouldAnimate() 返回 false
+     */
+    public void applyFrameSchedule(WatchFaceConfig cfg, float batteryLevel) {
+        boolean flameVisible = cfg.batteryRingEnabled && batteryLevel > 0f;
+        int fps = frameScheduler.update(true, flameVisible, batteryLevel);
+        if (fps == FrameScheduler.FPS_IDLE) return;
+
+        long delay = FrameScheduler.frameDelayMillis(fps);
+        if (delay != appliedFrameDelayMillis) {
+            appliedFrameDelayMillis = delay;
+            setInteractiveDrawModeUpdateDelayMillis(delay);
+        }
+    }
 
-            int pct = Math.max(1, backgroundScalePercent); // defensive, though prefs constrain to >=100
-            // 当 pct == 100 时 srcW = bw, srcH = bh -> 映射整图到 bounds
-            int srcW = Math.max(1, bw * 100 / pct);
-            int srcH = Math.max(1, bh * 100 / pct);
+    /**
+     * 环境模式绘制：系统每分钟调用一次
+     * - 纯黑背景，不绘制背景图、电量环、火焰与电量文本，仅显示时间
+     * - hasLowBitAmbient：关闭抗锯齿，只输出纯色像素
+     * - hasBurnInProtection：时间改为描边绘制，并每分钟轮换像素偏移
+     */
+    public void renderAmbient(Canvas canvas, Rect bounds, ZonedDateTime dateTime, WatchFaceConfig cfg) {
+        canvas.drawColor(Color.BLACK);
+        try {
+            float cx = bounds.exactCenterX();
+            float cy = bounds.exactCenterY();
+            float radius = Math.min(bounds.width(), bounds.height()) * 0.5f;
+            polar.update(cx, cy, radius);
 
-            // 防止 src 大于原图（在极端数值或 pct<100 情况）
-            if (srcW > bw) srcW = bw;
-            if (srcH > bh) srcH = bh;
+            boolean lowBit = watchState.hasLowBitAmbient();
+            boolean burnIn = watchState.hasBurnInProtection();
 
-            int left = Math.max(0, (bw - srcW) / 2);
-            int top = Math.max(0, (bh - srcH) / 2);
+            ambientTimePaint.setAntiAlias(!lowBit);
+            ambientTimePaint.setTextSize(polar.getMaxRadius() * 2f * 0.12f * cfg.timeSizeScale);
 
-            Rect src = new Rect(left, top, left + srcW, top + srcH);
-            Rect dst = new Rect(bounds.left, bounds.top, bounds.right, bounds.bottom);
+            float dx = 0f;
+            float dy = 0f;
+            if (burnIn) {
+                ambientTimePaint.setStyle(Paint.Style.STROKE);
+                ambientTimePaint.setStrokeWidth(Math.max(1f, radius * 0.006f));
+                int[] offset = BURN_IN_OFFSETS[dateTime.getMinute() % BURN_IN_OFFSETS.length];
+                dx = offset[0];
+                dy = offset[1];
+            } else {
+                ambientTimePaint.setStyle(Paint.Style.FILL);
+            }
 
-            // Draw bitmap section -> stretch to dest bounds (efficient, no huge intermediate allocation)
-            canvas.drawBitmap(backgroundBitmap, src, dst, null);
+            float timeX;
+            float timeYcenter;
+            if (cfg.timeDistRatio <= 0f) {
+                timeX = polar.getCenterX();
+                timeYcenter = polar.getCenterY();
+            } else {
+                polar.toCartesianRatioOut(normalizeAngle(cfg.timeDirDeg) - 90f, cfg.timeDistRatio, coordTmp);
+                timeX = coordTmp[0];
+                timeYcenter = coordTmp[1];
+            }
+            ambientTimePaint.getFontMetrics(fontMetrics);
+            Paint.FontMetrics tm = fontMetrics;
+            float timeY = timeYcenter - (tm.ascent + tm.descent) / 2f;
+            canvas.drawText(dateTime.format(timeFormatter), timeX + dx, timeY + dy, ambientTimePaint);
         } catch (Exception e) {
             e.printStackTrace();
-            // fallback to draw whole bitmap stretched (最保险)
-            try {
-                Rect dst = new Rect(bounds.left, bounds.top, bounds.right, bounds.bottom);
-                canvas.drawBitmap(backgroundBitmap, null, dst, null);
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                canvas.drawColor(Color.WHITE);
-            }
         }
     }
 
-    public void drawDigitalTime(Canvas canvas, PolarCoord polar, ZonedDateTime dateTime) {
-        timePaint.setColor(timeColor);
-        datePaint.setColor(dateColor);
-
-        float baseTimeTextSize = polar.getMaxRadius() * 2f * 0.12f;
-        float baseDateTextSize = polar.getMaxRadius() * 2f * 0.05f;
-
-        timePaint.setTextSize(baseTimeTextSize * timeSizeScale);
-        datePaint.setTextSize(baseDateTextSize * dateSizeScale);
-
-        String timeString = dateTime.format(timeFormatter);
-        String dateString = dateTime.format(dateFormatter);
-
-        if (timeDistRatio <= 0f) {
-            float timeX = polar.getCenterX();
-            float timeY = polar.getCenterY();
-            Paint.FontMetrics timeMetrics = timePaint.getFontMetrics();
-            float drawY = timeY - (timeMetrics.ascent + timeMetrics.descent) / 2f;
-            canvas.drawText(timeString, timeX, drawY, timePaint);
-        } else {
-            float userAngle = normalizeAngle(timeDirDeg);
-            float polarAngle = userAngle - 90f;
-            polar.toCartesianRatioOut(polarAngle, timeDistRatio, coordTmp);
-            float timeX = coordTmp[0];
-            float timeYcenter = coordTmp[1];
-            Paint.FontMetrics timeMetrics = timePaint.getFontMetrics();
-            float timeY = timeYcenter - (timeMetrics.ascent + timeMetrics.descent) / 2f;
-            canvas.drawText(timeString, timeX, timeY, timePaint);
-        }
-
-        if (dateDistRatio <= 0f) {
-            float dateX = polar.getCenterX();
-            float dateY = polar.getCenterY();
-            Paint.FontMetrics dateMetrics = datePaint.getFontMetrics();
-            float drawY = dateY - (dateMetrics.ascent + dateMetrics.descent) / 2f;
-            canvas.drawText(dateString, dateX, drawY, datePaint);
-        } else {
-            float userAngle = normalizeAngle(dateDirDeg);
-            float polarAngle = userAngle - 90f;
-            polar.toCartesianRatioOut(polarAngle, dateDistRatio, coordTmp);
-            float dateX = coordTmp[0];
-            float dateYcenter = coordTmp[1];
-            Paint.FontMetrics dateMetrics = datePaint.getFontMetrics();
-            float dateY = dateYcenter - (dateMetrics.ascent + dateMetrics.descent) / 2f;
-            canvas.drawText(dateString, dateX, dateY, datePaint);
-        }
-    }
-
-    public void drawBatteryText(Canvas canvas, PolarCoord polar) {
-        float batteryLevel = cachedBatteryLevel;
-        String batteryText = Math.round(batteryLevel * 100) + "%";
-
-        float baseBatteryTextSize = polar.getMaxRadius() * 2f * 0.035f;
-        batteryTextPaint.setTextSize(baseBatteryTextSize * batterySizeScale);
-
-        batteryTextPaint.setColor(batteryElementColor);
-
-        if (batteryDistRatio <= 0f) {
-            float batteryX = polar.getCenterX();
-            float batteryYcenter = polar.getCenterY();
-            Paint.FontMetrics bm = batteryTextPaint.getFontMetrics();
-            float batteryY = batteryYcenter - (bm.ascent + bm.descent) / 2f;
-            canvas.drawText(batteryText, batteryX, batteryY, batteryTextPaint);
-        } else {
-            float userAngle = normalizeAngle(batteryDirDeg);
-            float polarAngle = userAngle - 90f;
-            polar.toCartesianRatioOut(polarAngle, batteryDistRatio, coordTmp);
-            float batteryX = coordTmp[0];
-            float batteryYcenter = coordTmp[1];
-            Paint.FontMetrics bm = batteryTextPaint.getFontMetrics();
-            float batteryY = batteryYcenter - (bm.ascent + bm.descent) / 2f;
-            batteryTextPaint.setShadowLayer(3, 0, 0, Color.BLACK);
-            canvas.drawText(batteryText, batteryX, batteryY, batteryTextPaint);
-            batteryTextPaint.setShadowLayer(0, 0, 0, 0);
-        }
+    public float normalizeAngle(float deg) {
+        return PolarCoord.normalizeAngle(deg);
     }
 
-    public float normalizeAngle(float deg) {
-        float a = deg % 360f;
-        if (a < 0f) a += 360f;
-        return a;
+    /**
+     * 仅在交互模式、可见且有动画（FrameScheduler 判定）时连续出帧；
+     * 其余情况交由系统每分钟的时间 tick 以及电量/设置变化时的 invalidate 刷新
+     */
+    @Override
+    public boolean shouldAnimate() {
+        return super.shouldAnimate() && !isAmbientMode() && frameScheduler.isAnimating();
     }
 
     @Override
     public void renderHighlightLayer(@NonNull Canvas canvas, @NonNull Rect bounds, @NonNull ZonedDateTime dateTime) {
-        // 暂不需要高亮层
+        // 编辑器中高亮表盘组件槽位
+        RenderParameters params = getRenderParameters();
+        for (ComplicationSlot slot : complicationSlots) {
+            if (slot.isEnabled()) {
+                slot.renderHighlightLayer(canvas, dateTime, params);
+            }
+        }
     }
 
     @Override
     public void onDestroy() {
-        try {
-            if (settingsReceiver != null) {
-                context.unregisterReceiver(settingsReceiver);
-            }
-        } catch (IllegalArgumentException ignored) {}
+        PreferencesManager.getConfigBus().unregister(configListener);
 
-        try {
-            context.unregisterReceiver(batteryReceiver);
-        } catch (IllegalArgumentException ignored) {}
+        batteryState.unregister(batteryListener);
 
         try {
-            if (backgroundBitmap != null && !backgroundBitmap.isRecycled()) {
-                backgroundBitmap.recycle();
-                backgroundBitmap = null;
-            }
+            backgroundLoader.destroy();
         } catch (Exception ignored) {}
 
+        compositor.release();
+        for (ComplicationSlot slot : complicationSlots) {
+            if (slot.getRenderer() instanceof CachedComplication) {
+                ((CachedComplication) slot.getRenderer()).releaseLayer();
+            }
+        }
+
         super.onDestroy();
     }
 }
\ No newline at end of file
@@ -108,7 +108,6 @@ public class ElementEditActivity extends Activity {
             resetElementToDefaults();
             Toast.makeText(ElementEditActivity.this, "该元素已重置为默认值", Toast.LENGTH_SHORT).show();
             updateDisplayedValues();
-            sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
             return true;
         });
     }
@@ -126,24 +125,29 @@ public class ElementEditActivity extends Activity {
         applyColorToPreview(currentColor);
     }
 
+    /**
+     * 重置当前元素：四项修改一次提交（一次写入、表盘只重新加载一次）
+     */
     private void resetElementToDefaults() {
+        PreferencesManager.Editor editor = prefs.edit();
         if (elementIndex == 0) {
-            prefs.setTimeDirection(0f);
-            prefs.setTimeDistance(0.18f);
-            prefs.setTimeSize(1.0f);
-            prefs.setTimeColor(Color.BLACK);
+            editor.setTimeDirection(0f)
+                    .setTimeDistance(0.18f)
+                    .setTimeSize(1.0f)
+                    .setTimeColor(Color.BLACK);
         } else if (elementIndex == 1) {
-            prefs.setDateDirection(0f);
-            prefs.setDateDistance(0.30f);
-            prefs.setDateSize(1.0f);
-            prefs.setDateColor(Color.BLACK);
+            editor.setDateDirection(0f)
+                    .setDateDistance(0.30f)
+                    .setDateSize(1.0f)
+                    .setDateColor(Color.BLACK);
         } else {
-            prefs.setBatteryDirection(180f);
-            prefs.setBatteryDistance(0.9f);
-            prefs.setBatterySize(1.0f);
-            prefs.setBatteryColor(Color.WHITE);
+            editor.setBatteryDirection(180f)
+                    .setBatteryDistance(0.9f)
+                    .setBatterySize(1.0f)
+                    .setBatteryColor(Color.WHITE);
             // 电量环保持锁定（不在此处修改）
         }
+        editor.apply();
     }
 
     /**
@@ -164,7 +168,6 @@ public class ElementEditActivity extends Activity {
                         currentColor = sel.getColor();
                         setElementColor(currentColor);
                         applyColorToPreview(currentColor);
-                        sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
                     }
                 }).show();
     }
@@ -186,7 +189,6 @@ public class ElementEditActivity extends Activity {
                 currentColor = col;
                 setElementColor(currentColor);
                 applyColorToPreview(currentColor);
-                sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
             } catch (IllegalArgumentException e) {
                 Toast.makeText(ElementEditActivity.this, "无效颜色格式", Toast.LENGTH_SHORT).show();
             }
@@ -237,7 +239,6 @@ public class ElementEditActivity extends Activity {
                     setElementDistance(newDist);
                     valueDistance.setText(Math.round(newDist * 100f) + "%");
                 }
-                sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
             } catch (NumberFormatException e) {
                 Toast.makeText(ElementEditActivity.this, "请输入有效整数", Toast.LENGTH_SHORT).show();
             }
@@ -258,7 +259,6 @@ public class ElementEditActivity extends Activity {
             int angle = data.getIntExtra("selected_angle", 0);
             setElementDirection(angle);
             valueDirection.setText(angle + "°");
-            sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
         }
     }
 
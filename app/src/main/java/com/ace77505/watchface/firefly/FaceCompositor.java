@@ -0,0 +1,348 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * FaceCompositor - 交互模式表盘合成：背景与时间/日期/电量等静态内容合成到静态层，
+ * 每分钟（或电量/配置/背景变化时）重建一次，每帧只绘制静态层 + 火焰特效
+ *
+ * 不依赖 Renderer / 表盘服务，DigitalRenderer 与单元测试（RenderHarnessTest）共用同一绘制路径。
+ * 仅在渲染线程调用。
+ */
+public class FaceCompositor {
+    // 电量环默认锁定颜色（硬编码为原始默认）
+    public static final int LOCKED_BATTERY_RING_COLOR = Color.parseColor("#FFA04A");
+    public static final float LOCKED_BATTERY_RING_INSET = 0.97f; // 97% 内缩（固定）
+    public static final float LOCKED_BATTERY_RING_SIZE_SCALE = 1.0f; // 厚度不缩放（固定）
+
+    // 静态层：背景 + 电量弧线 + 时间/日期/电量文本，只在分钟、电量百分比、配置、尺寸或背景变化时重建，
+    // 每帧仅需一次位图绘制 + 火焰特效
+    public Bitmap staticLayer;
+    public Canvas staticCanvas;
+    public long staticLayerTimeKey = -1L;
+    public int staticLayerBatteryPercent = -1;
+    public Bitmap staticLayerBackground;
+    public int staticLayerLayoutVersion = -1;
+    public int staticLayerColorVersion = -1;
+    public int staticLayerRingVersion = -1;
+    public volatile boolean staticLayerDirty = true;
+
+    // 背景位图尚未就绪时的占位色（背景清单中的主色调，未知时为白色）
+    public int backgroundPlaceholderColor = Color.WHITE;
+
+    // 复用的绘制矩形（避免每帧分配）
+    public final Rect bgSrcRect = new Rect();
+    public final Rect bgDstRect = new Rect();
+
+    // 画笔
+    public final Paint timePaint = new Paint();
+    public final Paint datePaint = new Paint();
+    public final Paint batteryTextPaint = new Paint();
+
+    // 电量环
+    public final BatteryRing batteryRing;
+
+    // 时间数字字形图集（HH:mm 以位图拷贝绘制）
+    public final DigitGlyphAtlas timeGlyphs = new DigitGlyphAtlas();
+
+    // 日期格式
+    public final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEE, MMM d");
+
+    // 复用的极坐标实例与临时数组（避免每帧分配）
+    public final PolarCoord polar = new PolarCoord(0f, 0f, 1f);
+    public final float[] coordTmp = new float[2];
+    public final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+
+    // 文本缓存：电量文本按百分比缓存，日期文本按天缓存（避免绘制时拼接/格式化字符串）
+    public final String[] batteryTexts = new String[101];
+    public String cachedDateString;
+    public long cachedDateKey = -1L;
+
+    // 各阶段耗时记录到调用方的帧统计
+    public final FrameStats frameStats;
+
+    public FaceCompositor(Context context, FrameStats frameStats) {
+        this.frameStats = frameStats;
+
+        initPaints();
+
+        batteryRing = new BatteryRing(context);
+        batteryRing.setConfig(
+                LOCKED_BATTERY_RING_INSET,
+                LOCKED_BATTERY_RING_SIZE_SCALE,
+                LOCKED_BATTERY_RING_COLOR
+        );
+    }
+
+    public void initPaints() {
+        timePaint.setAntiAlias(true);
+        timePaint.setDither(true);
+        timePaint.setTextAlign(Paint.Align.CENTER);
+        timePaint.setTypeface(Typeface.create("sans-serif-medium", Typeface.NORMAL));
+        timePaint.setStyle(Paint.Style.FILL);
+
+        datePaint.setAntiAlias(true);
+        datePaint.setDither(true);
+        datePaint.setTextAlign(Paint.Align.CENTER);
+        datePaint.setTypeface(Typeface.create("sans-serif", Typeface.NORMAL));
+        datePaint.setStyle(Paint.Style.FILL);
+
+        batteryTextPaint.setAntiAlias(true);
+        batteryTextPaint.setDither(true);
+        batteryTextPaint.setTextAlign(Paint.Align.CENTER);
+        batteryTextPaint.setTypeface(Typeface.create("sans-serif-medium", Typeface.NORMAL));
+        batteryTextPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * 交互模式单帧绘制：静态层（必要时重建）+ 火焰特效
+     * @param background 与 bounds 等大的背景位图，尚未就绪时为 null（以占位色绘制）
+     */
+    public void renderInteractive(Canvas canvas, Rect bounds, ZonedDateTime dateTime, float batteryLevel,
+                                  WatchFaceConfig cfg, Bitmap background) {
+        float radius = Math.min(bounds.width(), bounds.height()) * 0.5f;
+        polar.update(bounds.exactCenterX(), bounds.exactCenterY(), radius);
+
+        if (isStaticLayerStale(bounds, dateTime, batteryLevel, cfg, background)) {
+            rebuildStaticLayer(bounds, dateTime, batteryLevel, cfg, background);
+        }
+        long t = frameStats.mark();
+        canvas.drawBitmap(staticLayer, bounds.left, bounds.top, null);
+        t = frameStats.addStage(FrameStats.STAGE_BLIT, t);
+
+        if (cfg.batteryRingEnabled) {
+            batteryRing.drawFlame(canvas, polar, coordTmp, batteryLevel);
+            frameStats.addStage(FrameStats.STAGE_FLAME, t);
+        }
+    }
+
+    /**
+     * 静态层是否需要重建：分钟（含日期）、电量百分比、布局/颜色/电量环配置版本、尺寸或背景位图任一变化
+     */
+    public boolean isStaticLayerStale(Rect bounds, ZonedDateTime dateTime, float batteryLevel, WatchFaceConfig cfg,
+                                      Bitmap background) {
+        if (staticLayerDirty || staticLayer == null || staticLayer.isRecycled()) return true;
+        if (staticLayerLayoutVersion != cfg.layoutVersion
+                || staticLayerColorVersion != cfg.colorVersion
+                || staticLayerRingVersion != cfg.ringVersion) return true;
+        if (staticLayer.getWidth() != bounds.width() || staticLayer.getHeight() != bounds.height()) return true;
+        if (staticLayerTimeKey != timeKey(dateTime)) return true;
+        if (staticLayerBatteryPercent != Math.round(batteryLevel * 100)) return true;
+        return staticLayerBackground != background;
+    }
+
+    /**
+     * 以分钟为粒度的时间键（年/日/时/分），时区变化时同样会改变
+     */
+    public static long timeKey(ZonedDateTime dateTime) {
+        return ((long) dateTime.getYear() * 400L + dateTime.getDayOfYear()) * 1440L
+                + dateTime.getHour() * 60L + dateTime.getMinute();
+    }
+
+    /**
+     * 重建静态层（绘制顺序与原逐帧绘制一致：背景 -> 电量弧线 -> 时间/日期 -> 电量文本）
+     */
+    public void rebuildStaticLayer(Rect bounds, ZonedDateTime dateTime, float batteryLevel, WatchFaceConfig cfg,
+                                   Bitmap background) {
+        int w = bounds.width();
+        int h = bounds.height();
+        if (staticLayer == null || staticLayer.isRecycled()
+                || staticLayer.getWidth() != w || staticLayer.getHeight() != h) {
+            if (staticLayer != null && !staticLayer.isRecycled()) staticLayer.recycle();
+            staticLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            staticCanvas = new Canvas(staticLayer);
+        }
+
+        staticLayerDirty = false;
+        staticLayerTimeKey = timeKey(dateTime);
+        staticLayerBatteryPercent = Math.round(batteryLevel * 100);
+        staticLayerBackground = background;
+        staticLayerLayoutVersion = cfg.layoutVersion;
+        staticLayerColorVersion = cfg.colorVersion;
+        staticLayerRingVersion = cfg.ringVersion;
+
+        Canvas c = staticCanvas;
+        c.save();
+        c.translate(-bounds.left, -bounds.top);
+        try {
+            long t = frameStats.mark();
+            drawBackgroundDirect(c, bounds, background);
+            t = frameStats.addStage(FrameStats.STAGE_REBUILD_BG, t);
+
+            if (cfg.batteryRingEnabled) {
+                batteryRing.drawRing(c, polar, batteryLevel);
+                t = frameStats.addStage(FrameStats.STAGE_REBUILD_RING, t);
+            }
+
+            drawDigitalTime(c, polar, dateTime, cfg);
+            t = frameStats.addStage(FrameStats.STAGE_REBUILD_TEXT, t);
+            drawBatteryText(c, polar, batteryLevel, cfg);
+            frameStats.addStage(FrameStats.STAGE_REBUILD_BATTERY, t);
+        } finally {
+            c.restore();
+        }
+    }
+
+    /**
+     * 绘制背景：
+     *  - 背景位图已由 BackgroundCache 生成为与 bounds 等大（裁切与缩放已完成），直接 1:1 绘制
+     *  - 尺寸不一致时（例如 bounds 刚变化、重新生成前）退回到 src -> dst 拉伸绘制
+     */
+    public void drawBackgroundDirect(Canvas canvas, Rect bounds, Bitmap bmp) {
+        if (bmp == null || bmp.isRecycled()) {
+            canvas.drawColor(backgroundPlaceholderColor);
+            return;
+        }
+
+        try {
+            if (bmp.getWidth() == bounds.width() && bmp.getHeight() == bounds.height()) {
+                canvas.drawBitmap(bmp, bounds.left, bounds.top, null);
+                return;
+            }
+
+            bgSrcRect.set(0, 0, bmp.getWidth(), bmp.getHeight());
+            bgDstRect.set(bounds);
+            canvas.drawBitmap(bmp, bgSrcRect, bgDstRect, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            canvas.drawColor(Color.WHITE);
+        }
+    }
+
+    public void drawDigitalTime(Canvas canvas, PolarCoord polar, ZonedDateTime dateTime, WatchFaceConfig cfg) {
+        timePaint.setColor(cfg.timeColor);
+        datePaint.setColor(cfg.dateColor);
+
+        float baseTimeTextSize = polar.getMaxRadius() * 2f * 0.12f;
+        float baseDateTextSize = polar.getMaxRadius() * 2f * 0.05f;
+
+        timePaint.setTextSize(baseTimeTextSize * cfg.timeSizeScale);
+        datePaint.setTextSize(baseDateTextSize * cfg.dateSizeScale);
+
+        String dateString = getDateString(dateTime);
+
+        // 时间使用字形图集绘制（字号/颜色变化时才重建图集）
+        timeGlyphs.ensure(timePaint);
+        int hour = dateTime.getHour();
+        int minute = dateTime.getMinute();
+        float glyphCenterOffset = (timeGlyphs.getAscent() + timeGlyphs.getDescent()) / 2f;
+
+        if (cfg.timeDistRatio <= 0f) {
+            float timeX = polar.getCenterX();
+            float timeY = polar.getCenterY();
+            timeGlyphs.drawTime(canvas, hour, minute, timeX, timeY - glyphCenterOffset);
+        } else {
+            float userAngle = PolarCoord.normalizeAngle(cfg.timeDirDeg);
+            float polarAngle = userAngle - 90f;
+            polar.toCartesianRatioOut(polarAngle, cfg.timeDistRatio, coordTmp);
+            float timeX = coordTmp[0];
+            float timeYcenter = coordTmp[1];
+            timeGlyphs.drawTime(canvas, hour, minute, timeX, timeYcenter - glyphCenterOffset);
+        }
+
+        if (cfg.dateDistRatio <= 0f) {
+            float dateX = polar.getCenterX();
+            float dateY = polar.getCenterY();
+            datePaint.getFontMetrics(fontMetrics);
+            Paint.FontMetrics dateMetrics = fontMetrics;
+            float drawY = dateY - (dateMetrics.ascent + dateMetrics.descent) / 2f;
+            canvas.drawText(dateString, dateX, drawY, datePaint);
+        } else {
+            float userAngle = PolarCoord.normalizeAngle(cfg.dateDirDeg);
+            float polarAngle = userAngle - 90f;
+            polar.toCartesianRatioOut(polarAngle, cfg.dateDistRatio, coordTmp);
+            float dateX = coordTmp[0];
+            float dateYcenter = coordTmp[1];
+            datePaint.getFontMetrics(fontMetrics);
+            Paint.FontMetrics dateMetrics = fontMetrics;
+            float dateY = dateYcenter - (dateMetrics.ascent + dateMetrics.descent) / 2f;
+            canvas.drawText(dateString, dateX, dateY, datePaint);
+        }
+    }
+
+    public void drawBatteryText(Canvas canvas, PolarCoord polar, float batteryLevel, WatchFaceConfig cfg) {
+        String batteryText = getBatteryText(Math.round(batteryLevel * 100));
+
+        float baseBatteryTextSize = polar.getMaxRadius() * 2f * 0.035f;
+        batteryTextPaint.setTextSize(baseBatteryTextSize * cfg.batterySizeScale);
+
+        batteryTextPaint.setColor(cfg.batteryColor);
+
+        if (cfg.batteryDistRatio <= 0f) {
+            float batteryX = polar.getCenterX();
+            float batteryYcenter = polar.getCenterY();
+            batteryTextPaint.getFontMetrics(fontMetrics);
+            Paint.FontMetrics bm = fontMetrics;
+            float batteryY = batteryYcenter - (bm.ascent + bm.descent) / 2f;
+            canvas.drawText(batteryText, batteryX, batteryY, batteryTextPaint);
+        } else {
+            float userAngle = PolarCoord.normalizeAngle(cfg.batteryDirDeg);
+            float polarAngle = userAngle - 90f;
+            polar.toCartesianRatioOut(polarAngle, cfg.batteryDistRatio, coordTmp);
+            float batteryX = coordTmp[0];
+            float batteryYcenter = coordTmp[1];
+            batteryTextPaint.getFontMetrics(fontMetrics);
+            Paint.FontMetrics bm = fontMetrics;
+            float batteryY = batteryYcenter - (bm.ascent + bm.descent) / 2f;
+            batteryTextPaint.setShadowLayer(3, 0, 0, Color.BLACK);
+            canvas.drawText(batteryText, batteryX, batteryY, batteryTextPaint);
+            batteryTextPaint.setShadowLayer(0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * 电量文本（按百分比缓存）
+     */
+    public String getBatteryText(int percent) {
+        percent = Math.max(0, Math.min(100, percent));
+        String text = batteryTexts[percent];
+        if (text == null) {
+            text = percent + "%";
+            batteryTexts[percent] = text;
+        }
+        return text;
+    }
+
+    /**
+     * 日期文本（同一天内复用）
+     */
+    public String getDateString(ZonedDateTime dateTime) {
+        long key = (long) dateTime.getYear() * 400L + dateTime.getDayOfYear();
+        if (key != cachedDateKey || cachedDateString == null) {
+            cachedDateString = dateTime.format(dateFormatter);
+            cachedDateKey = key;
+        }
+        return cachedDateString;
+    }
+
+    /**
+     * 表盘合成持有的位图内存（静态层、字形图集、火焰图集）
+     */
+    public long getBitmapMemoryBytes() {
+        return bitmapBytes(staticLayer)
+                + bitmapBytes(timeGlyphs.getBitmap())
+                + bitmapBytes(batteryRing.getFlameSpriteBitmap());
+    }
+
+    public static long bitmapBytes(Bitmap bmp) {
+        return bmp == null || bmp.isRecycled() ? 0L : bmp.getAllocationByteCount();
+    }
+
+    public void release() {
+        if (staticLayer != null && !staticLayer.isRecycled()) {
+            staticLayer.recycle();
+            staticLayer = null;
+        }
+        timeGlyphs.release();
+        batteryRing.release();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.graphics.RectF;
+
+import androidx.wear.watchface.CanvasComplicationFactory;
+import androidx.wear.watchface.ComplicationSlot;
+import androidx.wear.watchface.ComplicationSlotsManager;
+import androidx.wear.watchface.complications.ComplicationSlotBounds;
+import androidx.wear.watchface.complications.DefaultComplicationDataSourcePolicy;
+import androidx.wear.watchface.complications.SystemDataSources;
+import androidx.wear.watchface.complications.data.ComplicationType;
+import androidx.wear.watchface.complications.rendering.ComplicationDrawable;
+import androidx.wear.watchface.style.CurrentUserStyleRepository;
+import androidx.wear.watchface.style.UserStyleSchema;
+import androidx.wear.watchface.style.UserStyleSetting;
+import androidx.wear.watchface.style.UserStyleSetting.ComplicationSlotsUserStyleSetting;
+import androidx.wear.watchface.style.UserStyleSetting.ComplicationSlotsUserStyleSetting.ComplicationSlotOverlay;
+import androidx.wear.watchface.style.UserStyleSetting.ComplicationSlotsUserStyleSetting.ComplicationSlotsOption;
+import androidx.wear.watchface.style.WatchFaceLayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 表盘组件（复杂功能槽）定义
+ *
+ * - 槽位位置沿用元素布局的极坐标模型：方向（用户角度，0° 为 12 点、顺时针）+ 距离（半径比例）+ 大小（直径比例）
+ * - 每个槽位的 CanvasComplication 为 CachedComplication：数据变化时才重绘到缓存位图，逐帧只做一次位图拷贝
+ * - 槽位启用状态由用户样式 COMPLICATIONS_SETTING_ID（开/关）决定，ComplicationSlotsManager 据此启用/停用槽位，
+ *   停用的槽位不绘制、不响应点击、编辑界面也不显示；该选项只在系统表盘编辑界面中切换
+ * - debug 构建默认数据源为本应用的 StandInDataSourceService（src/debug 源集），便于在没有真实数据源的环境测试；release 使用系统数据源
+ */
+public class FireflyComplications {
+    public static final int LEFT_SLOT_ID = 100;
+    public static final int RIGHT_SLOT_ID = 101;
+
+    // 槽位布局：{id, 方向（用户角度）, 距离（半径比例）, 大小（直径比例）}
+    public static final int[] SLOT_IDS = {LEFT_SLOT_ID, RIGHT_SLOT_ID};
+    public static final float[] SLOT_DIR_DEG = {270f, 90f};
+    public static final float SLOT_DIST_RATIO = 0.5f;
+    public static final float SLOT_SIZE_RATIO = 0.22f;
+
+    private static final List<ComplicationType> SUPPORTED_TYPES = Arrays.asList(
+            ComplicationType.SHORT_TEXT,
+            ComplicationType.RANGED_VALUE,
+            ComplicationType.MONOCHROMATIC_IMAGE,
+            ComplicationType.SMALL_IMAGE
+    );
+
+    private static final String STAND_IN_DATA_SOURCE = "com.ace77505.watchface.firefly.StandInDataSourceService";
+
+    private static final int[] SYSTEM_FALLBACKS = {
+            SystemDataSources.DATA_SOURCE_DAY_OF_WEEK,
+            SystemDataSources.DATA_SOURCE_WATCH_BATTERY,
+    };
+
+    // 用户样式：表盘组件开/关（默认关闭）
+    public static final UserStyleSetting.Id COMPLICATIONS_SETTING_ID = new UserStyleSetting.Id("complications");
+    public static final UserStyleSetting.Option.Id COMPLICATIONS_ON_ID = new UserStyleSetting.Option.Id("on");
+    public static final UserStyleSetting.Option.Id COMPLICATIONS_OFF_ID = new UserStyleSetting.Option.Id("off");
+
+    private FireflyComplications() { }
+
+    public static UserStyleSchema createUserStyleSchema() {
+        ComplicationSlotsOption on = new ComplicationSlotsOption(
+                COMPLICATIONS_ON_ID, "显示", null, overlays(true));
+        ComplicationSlotsOption off = new ComplicationSlotsOption(
+                COMPLICATIONS_OFF_ID, "隐藏", null, overlays(false));
+        ComplicationSlotsUserStyleSetting setting = new ComplicationSlotsUserStyleSetting(
+                COMPLICATIONS_SETTING_ID,
+                "表盘组件",
+                "在 9 点与 3 点方向显示表盘组件",
+                null,
+                Arrays.asList(on, off),
+                Collections.singletonList(WatchFaceLayer.COMPLICATIONS),
+                off);
+        return new UserStyleSchema(Collections.singletonList(setting));
+    }
+
+    private static List<ComplicationSlotOverlay> overlays(boolean enabled) {
+        List<ComplicationSlotOverlay> out = new ArrayList<>(SLOT_IDS.length);
+        for (int id : SLOT_IDS) {
+            out.add(new ComplicationSlotOverlay.Builder(id).setEnabled(enabled).build());
+        }
+        return out;
+    }
+
+    public static ComplicationSlotsManager createManager(
+            Context context, CurrentUserStyleRepository currentUserStyleRepository) {
+        Context app = context.getApplicationContext();
+        CanvasComplicationFactory factory = (watchState, invalidateCallback) ->
+                new CachedComplication(new ComplicationDrawable(app), watchState, invalidateCallback);
+
+        // 测试数据源只存在于 debug 源集（src/debug），按类名引用，release 构建不依赖该类
+        ComponentName standIn = new ComponentName(app.getPackageName(), STAND_IN_DATA_SOURCE);
+
+        List<ComplicationSlot> slots = new ArrayList<>(SLOT_IDS.length);
+        for (int i = 0; i < SLOT_IDS.length; i++) {
+            DefaultComplicationDataSourcePolicy policy = BuildConfig.DEBUG
+                    ? new DefaultComplicationDataSourcePolicy(
+                            standIn, ComplicationType.SHORT_TEXT,
+                            SYSTEM_FALLBACKS[i], ComplicationType.SHORT_TEXT)
+                    : new DefaultComplicationDataSourcePolicy(
+                            SYSTEM_FALLBACKS[i], ComplicationType.SHORT_TEXT);
+
+            slots.add(ComplicationSlot.createRoundRectComplicationSlotBuilder(
+                    SLOT_IDS[i],
+                    factory,
+                    SUPPORTED_TYPES,
+                    policy,
+                    new ComplicationSlotBounds(unitBounds(SLOT_DIR_DEG[i], SLOT_DIST_RATIO, SLOT_SIZE_RATIO))
+            ).build());
+        }
+        return new ComplicationSlotsManager(slots, currentUserStyleRepository);
+    }
+
+    /**
+     * 极坐标位置 -> 单位正方形（0..1）内的槽位边界
+     * @param userDirDeg 方向（用户角度，0° 为 12 点）
+     * @param distRatio 中心距离（半径比例）
+     * @param sizeRatio 槽位边长（直径比例）
+     */
+    public static RectF unitBounds(float userDirDeg, float distRatio, float sizeRatio) {
+        PolarCoord unit = new PolarCoord(0.5f, 0.5f, 0.5f);
+        float[] c = new float[2];
+        unit.toCartesianRatioOut(PolarCoord.normalizeAngle(userDirDeg) - 90f, distRatio, c);
+        float half = sizeRatio * 0.5f;
+        return new RectF(c[0] - half, c[1] - half, c[0] + half, c[1] + half);
+    }
+}
@@ -19,6 +19,24 @@ public class FlameEffect {
     // 动画循环周期（毫秒）
     public static final float CYCLE_DURATION = 4000; // 4秒一个完整循环，更自然的火焰节奏
 
+    // 各层颜色（按 FlameKeyframes.layerOf 索引）
+    public static final int[] LAYER_COLORS = {FLAME_COLOR_CORE, FLAME_COLOR_MID, FLAME_COLOR_OUTER};
+
+    // 预计算的关键帧表（精度由 FlameKeyframes.DEFAULT_RESOLUTION 决定）
+    private static final FlameKeyframes keyframes =
+            new FlameKeyframes(FLAME_POINTS, FlameKeyframes.DEFAULT_RESOLUTION);
+
+    // 每帧采样结果（仅在渲染线程使用，避免分配）
+    private static final float[] frame = new float[FLAME_POINTS * FlameKeyframes.STRIDE];
+
+    /**
+     * 当前动画相位（0..1）
+     */
+    public static float currentPhase() {
+        long currentTime = System.currentTimeMillis();
+        return (currentTime % (long) CYCLE_DURATION) / CYCLE_DURATION;
+    }
+
     /**
      * 绘制燃烧特效
      * @param canvas 画布
@@ -29,14 +47,23 @@ public class FlameEffect {
      * @param batteryLevel 当前电量（0-1，用于调整火焰强度）
      */
     public static void draw(Canvas canvas, Paint paint, float x, float y, float radius, float batteryLevel) {
-        // 直接用当前时间计算相位
-        long currentTime = System.currentTimeMillis();
-        float normalizedTime = (currentTime % (long)CYCLE_DURATION) / CYCLE_DURATION;
-        float flamePhase = normalizedTime * 2 * (float) Math.PI;
+        draw(canvas, paint, x, y, radius, batteryLevel, currentPhase());
+    }
 
+    /**
+     * 绘制指定相位（0..1）的燃烧特效
+     */
+    public static void draw(Canvas canvas, Paint paint, float x, float y, float radius,
+                            float batteryLevel, float phase01) {
         // 根据电量调整火焰强度（低电量时火焰更旺）
-        float intensity = calculateIntensity(batteryLevel);
+        drawFrame(canvas, paint, x, y, radius, calculateIntensity(batteryLevel), phase01);
+    }
 
+    /**
+     * 以给定强度绘制指定相位（0..1）的燃烧特效（FlameSprite 预渲染时也使用此方法）
+     */
+    public static void drawFrame(Canvas canvas, Paint paint, float x, float y, float radius,
+                                 float intensity, float phase01) {
         // 计算火焰基础尺寸
         float baseFlameSize = radius * 0.03f; // 表盘半径的3%
 
@@ -47,12 +74,11 @@ public class FlameEffect {
         // 切换到填充模式
         paint.setStyle(Paint.Style.FILL);
 
-        // 预计算正弦值，减少重复计算
-        float sinPhase = (float) Math.sin(flamePhase);
-        float cosPhase = (float) Math.cos(flamePhase);
+        // 从关键帧表插值得到本帧各火焰点数据（无三角函数计算）
+        keyframes.sample(phase01, frame);
 
         // 绘制多层火焰
-        drawFlameLayers(canvas, paint, x, y, baseFlameSize, intensity, sinPhase, cosPhase, flamePhase);
+        drawFlameLayers(canvas, paint, x, y, baseFlameSize, intensity, frame);
 
         // 添加中心高亮
         drawCenterHighlight(canvas, paint, x, y, baseFlameSize);
@@ -68,52 +94,25 @@ public class FlameEffect {
      */
     public static float calculateIntensity(float batteryLevel) {
         // 电量越低，强度越大（范围0.5-1.0）
-        float intensity = 1.0f - batteryLevel * 0.5f;
-        return Math.max(0.5f, Math.min(1.0f, intensity));
+        return FlameKeyframes.intensity(batteryLevel);
     }
 
     /**
      * 绘制多层火焰
+     * @param frameData FlameKeyframes.sample 的输出：每个火焰点 dx, dy, 半径系数
      */
     public static void drawFlameLayers(Canvas canvas, Paint paint, float x, float y,
-                                 float baseSize, float intensity,
-                                 float sinPhase, float cosPhase, float flamePhase) {
-        for (int i = 0; i < FLAME_POINTS; i++) {
-            // 计算每个火焰点的角度（均匀分布）
-            float angleOffset = (float) (i * (2 * Math.PI / FLAME_POINTS));
-
-            // 添加动态偏移，产生流动感
-            float dynamicOffset = sinPhase * 0.3f + cosPhase * 0.2f * (i % 2 == 0 ? 1 : -1);
-
-            // 计算火焰点位置（围绕中心轻微偏移）- 使用flamePhase创造流动感
-            float flameX = x + (float) Math.cos(angleOffset + flamePhase * 0.5f + dynamicOffset * 0.2f) * (baseSize * 0.4f);
-            float flameY = y + (float) Math.sin(angleOffset + flamePhase * 0.3f + dynamicOffset * 0.2f) * (baseSize * 0.4f);
-
-            // 火焰大小随相位变化
-            float flameSize = baseSize * (0.7f + 0.3f * (float) Math.sin(angleOffset + flamePhase * 2));
-            flameSize *= intensity;
-
-            // 根据位置绘制不同颜色的火焰层
-            if (i == 0) {
-                // 内层火焰（亮黄色）
-                paint.setColor(FLAME_COLOR_CORE);
-                paint.setAlpha(255);
-                canvas.drawCircle(flameX, flameY, flameSize * 1.2f, paint);
-            } else if (i < 3) {
-                // 中层火焰（橙黄）
-                paint.setColor(FLAME_COLOR_MID);
-                paint.setAlpha(180);
-                canvas.drawCircle(flameX * 1.1f - x * 0.1f,
-                        flameY * 1.1f - y * 0.1f,
-                        flameSize * 1.5f, paint);
-            } else {
-                // 外层火焰（橙红）
-                paint.setColor(FLAME_COLOR_OUTER);
-                paint.setAlpha(120);
-                canvas.drawCircle(flameX * 1.2f - x * 0.2f,
-                        flameY * 1.2f - y * 0.2f,
-                        flameSize * 2.0f, paint);
-            }
+                                 float baseSize, float intensity, float[] frameData) {
+        int n = frameData.length / FlameKeyframes.STRIDE;
+        for (int i = 0; i < n; i++) {
+            int k = i * FlameKeyframes.STRIDE;
+            int layer = FlameKeyframes.layerOf(i);
+
+            paint.setColor(LAYER_COLORS[layer]);
+            paint.setAlpha(FlameKeyframes.LAYER_ALPHA[layer]);
+            canvas.drawCircle(x + frameData[k] * baseSize,
+                    y + frameData[k + 1] * baseSize,
+                    frameData[k + 2] * baseSize * intensity, paint);
         }
     }
 
@@ -0,0 +1,111 @@
+package com.ace77505.watchface.firefly;
+
+/**
+ * 火焰关键帧表：把 FlameEffect 一个动画周期内各火焰点的偏移、大小预先计算到 float[] 中
+ *
+ * - 按相位分桶（resolution 个桶，外加周期终点一桶），运行时在相邻两桶之间线性插值
+ * - 每帧只做数组读取与乘加，不再调用 Math.sin / Math.cos
+ * - resolution 越大越平滑，占用内存为 (resolution + 1) * points * 3 个 float
+ *
+ * 纯 Java 实现（不依赖 android.*），便于在 JVM 上做基准测试。
+ */
+public class FlameKeyframes {
+    // 表盘使用的精度（FlameEffect）：调整火焰平滑度/内存即修改此值，各精度的耗时见 benchmark 模块 FlameBenchmark
+    public static final int DEFAULT_RESOLUTION = 64;
+    public static final int MIN_RESOLUTION = 4;
+
+    // 每个火焰点每个桶的数据：dx, dy（以 baseSize 为单位、相对中心）、半径系数
+    public static final int STRIDE = 3;
+
+    // 各层参数：0 = 内层，1..2 = 中层，其余 = 外层
+    // 中/外层在原实现中以 flameX * k - x * (k - 1) 的方式向外扩散，等价于偏移乘以 k
+    public static final float[] LAYER_SPREAD = {1.0f, 1.1f, 1.2f};
+    public static final float[] LAYER_SIZE = {1.2f, 1.5f, 2.0f};
+    public static final int[] LAYER_ALPHA = {255, 180, 120};
+
+    public final int points;
+    public final int resolution;
+    private final float[] table;
+
+    public FlameKeyframes(int points, int resolution) {
+        this.points = points;
+        this.resolution = Math.max(MIN_RESOLUTION, resolution);
+        this.table = new float[(this.resolution + 1) * points * STRIDE];
+
+        float[] tmp = new float[STRIDE];
+        for (int b = 0; b <= this.resolution; b++) {
+            float phase01 = (float) b / this.resolution;
+            for (int i = 0; i < points; i++) {
+                computeExact(i, points, phase01, tmp);
+                System.arraycopy(tmp, 0, table, (b * points + i) * STRIDE, STRIDE);
+            }
+        }
+    }
+
+    /**
+     * 火焰点所属层（0 内层 / 1 中层 / 2 外层）
+     */
+    public static int layerOf(int pointIndex) {
+        if (pointIndex == 0) return 0;
+        if (pointIndex < 3) return 1;
+        return 2;
+    }
+
+    /**
+     * 原始公式：计算第 i 个火焰点在 phase01（0..1）时的 dx, dy 与半径系数（已乘入层参数，未乘强度）
+     */
+    public static void computeExact(int i, int points, float phase01, float[] out) {
+        float flamePhase = phase01 * 2 * (float) Math.PI;
+        float sinPhase = (float) Math.sin(flamePhase);
+        float cosPhase = (float) Math.cos(flamePhase);
+
+        // 计算每个火焰点的角度（均匀分布）
+        float angleOffset = (float) (i * (2 * Math.PI / points));
+
+        // 添加动态偏移，产生流动感
+        float dynamicOffset = sinPhase * 0.3f + cosPhase * 0.2f * (i % 2 == 0 ? 1 : -1);
+
+        float dx = (float) Math.cos(angleOffset + flamePhase * 0.5f + dynamicOffset * 0.2f) * 0.4f;
+        float dy = (float) Math.sin(angleOffset + flamePhase * 0.3f + dynamicOffset * 0.2f) * 0.4f;
+
+        // 火焰大小随相位变化
+        float size = 0.7f + 0.3f * (float) Math.sin(angleOffset + flamePhase * 2);
+
+        int layer = layerOf(i);
+        out[0] = dx * LAYER_SPREAD[layer];
+        out[1] = dy * LAYER_SPREAD[layer];
+        out[2] = size * LAYER_SIZE[layer];
+    }
+
+    /**
+     * 采样 phase01（0..1）处所有火焰点的数据，写入 out（长度至少 points * STRIDE）
+     */
+    public void sample(float phase01, float[] out) {
+        float pos = phase01 * resolution;
+        int b = (int) pos;
+        if (b < 0) {
+            b = 0;
+            pos = 0f;
+        } else if (b >= resolution) {
+            b = resolution - 1;
+            pos = resolution;
+        }
+        float t = pos - b;
+
+        int base0 = b * points * STRIDE;
+        int base1 = base0 + points * STRIDE;
+        int n = points * STRIDE;
+        for (int k = 0; k < n; k++) {
+            float a = table[base0 + k];
+            out[k] = a + (table[base1 + k] - a) * t;
+        }
+    }
+
+    /**
+     * 根据电量计算火焰强度：电量越低，强度越大（范围 0.5-1.0）
+     */
+    public static float intensity(float batteryLevel) {
+        float intensity = 1.0f - batteryLevel * 0.5f;
+        return Math.max(0.5f, Math.min(1.0f, intensity));
+    }
+}
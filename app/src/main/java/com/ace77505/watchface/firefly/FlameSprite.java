@@ -0,0 +1,104 @@
+package com.ace77505.watchface.firefly;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * 火焰贴图模式：把一个动画周期预先光栅化到一张小图集中，每帧只绘制一次图集子区域
+ *
+ * - 避免每帧叠加 6 个半透明圆带来的过度绘制，火焰变为固定开销的一次位图拷贝
+ * - 图集以 (表盘半径, 强度分桶) 为键，仅在半径或 calculateIntensity() 所在分桶变化时重建
+ */
+public class FlameSprite {
+    public static final int FRAME_COUNT = 48;      // 一个周期的帧数
+    public static final int COLUMNS = 8;           // 图集列数
+    public static final int INTENSITY_BUCKETS = 10; // 强度 0.5..1.0 分桶数
+
+    // 单帧半宽（以 baseSize 为单位）：最大偏移 0.48 + 最大半径 2.0，留少量余量
+    private static final float HALF_EXTENT = 2.6f;
+
+    private Bitmap atlas;
+    private int cellSize;
+    private float keyRadius = -1f;
+    private int keyBucket = -1;
+
+    private final Paint rasterPaint = new Paint();
+    private final Paint blitPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect src = new Rect();
+    private final RectF dst = new RectF();
+
+    public FlameSprite() {
+        rasterPaint.setAntiAlias(true);
+        rasterPaint.setDither(true);
+    }
+
+    /**
+     * 强度分桶（0..INTENSITY_BUCKETS-1）
+     */
+    public static int intensityBucket(float batteryLevel) {
+        float intensity = FlameEffect.calculateIntensity(batteryLevel);
+        int bucket = (int) ((intensity - 0.5f) / 0.5f * INTENSITY_BUCKETS);
+        return Math.max(0, Math.min(INTENSITY_BUCKETS - 1, bucket));
+    }
+
+    /**
+     * 分桶中心对应的强度
+     */
+    public static float bucketIntensity(int bucket) {
+        return 0.5f + (bucket + 0.5f) * 0.5f / INTENSITY_BUCKETS;
+    }
+
+    /**
+     * 在 (x, y) 处绘制当前相位的火焰
+     */
+    public void draw(Canvas canvas, float x, float y, float radius, float batteryLevel) {
+        ensure(radius, intensityBucket(batteryLevel));
+        if (atlas == null) return;
+
+        int frameIndex = (int) (FlameEffect.currentPhase() * FRAME_COUNT) % FRAME_COUNT;
+        int col = frameIndex % COLUMNS;
+        int row = frameIndex / COLUMNS;
+        src.set(col * cellSize, row * cellSize, (col + 1) * cellSize, (row + 1) * cellSize);
+
+        float half = cellSize / 2f;
+        dst.set(x - half, y - half, x + half, y + half);
+        canvas.drawBitmap(atlas, src, dst, blitPaint);
+    }
+
+    private void ensure(float radius, int bucket) {
+        if (atlas != null && !atlas.isRecycled() && keyRadius == radius && keyBucket == bucket) return;
+        rebuild(radius, bucket);
+    }
+
+    private void rebuild(float radius, int bucket) {
+        release();
+        keyRadius = radius;
+        keyBucket = bucket;
+
+        float baseSize = radius * 0.03f;
+        cellSize = Math.max(1, (int) Math.ceil(baseSize * HALF_EXTENT * 2f));
+        int rows = (FRAME_COUNT + COLUMNS - 1) / COLUMNS;
+
+        atlas = Bitmap.createBitmap(cellSize * COLUMNS, cellSize * rows, Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(atlas);
+        float intensity = bucketIntensity(bucket);
+        float half = cellSize / 2f;
+        for (int f = 0; f < FRAME_COUNT; f++) {
+            float cx = (f % COLUMNS) * cellSize + half;
+            float cy = (f / COLUMNS) * cellSize + half;
+            FlameEffect.drawFrame(c, rasterPaint, cx, cy, radius, intensity, (float) f / FRAME_COUNT);
+        }
+    }
+
+    public Bitmap getBitmap() {
+        return atlas;
+    }
+
+    public void release() {
+        if (atlas != null && !atlas.isRecycled()) atlas.recycle();
+        atlas = null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ace77505.watchface.firefly;
+
+/**
+ * 自适应帧率调度：根据当前是否有动画、是否交互模式与电量决定帧间隔
+ *
+ * - 只有火焰特效可见且处于交互模式时才连续出帧
+ * - 没有任何动画时不再逐帧刷新，交由系统每分钟的时间 tick 与事件（电量/设置变化）触发重绘
+ * - 低电量时进一步降低帧率
+ */
+public class FrameScheduler {
+    // 调度策略
+    public static final int POLICY_ADAPTIVE = 0;    // 自适应（默认）
+    public static final int POLICY_FIXED = 1;       // 固定满帧（原行为：始终 15 帧）
+    public static final int POLICY_POWER_SAVER = 2; // 省电：火焰可见时也只用低帧率
+
+    public static final int DEFAULT_POLICY = POLICY_ADAPTIVE;
+
+    // 帧率参数
+    public static final int FULL_FPS = 15;
+    public static final int LOW_FPS = 5;
+    public static final float LOW_BATTERY_THRESHOLD = 0.15f; // 低于 15% 视为低电量
+
+    // 不连续出帧（仅按分钟 tick / 事件刷新）
+    public static final int FPS_IDLE = 0;
+
+    private volatile int policy = DEFAULT_POLICY;
+    private volatile int effectiveFps = FULL_FPS;
+
+    public static long frameDelayMillis(int fps) {
+        return 1000L / Math.max(1, fps);
+    }
+
+    public void setPolicy(int policy) {
+        if (policy < POLICY_ADAPTIVE || policy > POLICY_POWER_SAVER) policy = DEFAULT_POLICY;
+        this.policy = policy;
+    }
+
+    public int getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 根据当前状态计算帧率
+     * @param interactive 是否交互模式（非环境模式且可见）
+     * @param flameVisible 火焰特效是否可见（电量环开启且电量 > 0）
+     * @param batteryLevel 当前电量（0-1）
+     * @return 帧率，FPS_IDLE 表示无需连续出帧
+     */
+    public int update(boolean interactive, boolean flameVisible, float batteryLevel) {
+        int fps;
+        if (!interactive) {
+            fps = FPS_IDLE;
+        } else if (policy == POLICY_FIXED) {
+            fps = FULL_FPS;
+        } else if (!flameVisible) {
+            fps = FPS_IDLE;
+        } else if (policy == POLICY_POWER_SAVER || batteryLevel < LOW_BATTERY_THRESHOLD) {
+            fps = LOW_FPS;
+        } else {
+            fps = FULL_FPS;
+        }
+
+        effectiveFps = fps;
+        return fps;
+    }
+
+    /** 当前实际生效的帧率（FPS_IDLE 表示按分钟刷新），调试信息中作为目标帧率与实测帧率并列显示 */
+    public int getEffectiveFps() {
+        return effectiveFps;
+    }
+
+    /** 是否需要连续出帧 */
+    public boolean isAnimating() {
+        return effectiveFps > FPS_IDLE;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ace77505.watchface.firefly;
+
+import java.util.Arrays;
+
+/**
+ * 帧耗时统计：按绘制阶段记录耗时到原始类型环形缓冲区
+ *
+ * - 每个阶段有独立的环形缓冲区，只有本帧实际执行过的阶段才写入样本：
+ *   静态层重建阶段（约每分钟一次）的百分位反映的是重建本身的耗时，不会被未重建帧的 0 淹没
+ * - 记录与统计均不分配对象（所有数组在构造时分配，百分位计算复用 scratch 数组）
+ * - 提供各阶段 p50 / p95 / p99、掉帧计数与实测帧率
+ * - 掉帧只在连续的动画帧之间判定：上一帧不连续出帧（目标间隔为 0）、目标间隔变化或中间经过环境模式时，
+ *   本帧与上一帧的间隔不计入，避免唤醒/火焰恢复时的长间隔被记为掉帧
+ * - 硬件 Canvas 下测得的是绘制命令录制耗时（CPU 侧），不含 GPU 执行时间
+ *
+ * 仅在渲染线程调用。
+ */
+public class FrameStats {
+    // 逐帧阶段
+    public static final int STAGE_BLIT = 0;             // 静态层拷贝
+    public static final int STAGE_FLAME = 1;            // 火焰特效
+    public static final int STAGE_TOTAL = 2;            // 整帧
+    // 静态层重建阶段（只在重建的帧记录）
+    public static final int STAGE_REBUILD_BG = 3;       // 背景
+    public static final int STAGE_REBUILD_RING = 4;     // 电量弧线
+    public static final int STAGE_REBUILD_TEXT = 5;     // 时间/日期文本
+    public static final int STAGE_REBUILD_BATTERY = 6;  // 电量文本
+    public static final int STAGE_COUNT = 7;
+
+    public static final String[] STAGE_NAMES = {"blit", "flame", "total", "r.bg", "r.ring", "r.text", "r.batt"};
+
+    // 每个阶段环形缓冲区的容量（样本数）
+    public static final int CAPACITY = 120;
+
+    // 帧间隔超过目标间隔的该倍数即计为掉帧
+    public static final float DROP_FACTOR = 1.5f;
+
+    private final long[][] samples = new long[STAGE_COUNT][CAPACITY];
+    private final int[] heads = new int[STAGE_COUNT];
+    private final int[] counts = new int[STAGE_COUNT];
+    private final long[] frameStarts = new long[CAPACITY];
+    private final long[] pending = new long[STAGE_COUNT];
+    private final boolean[] ran = new boolean[STAGE_COUNT];
+    private final long[] scratch = new long[CAPACITY];
+
+    private int frameHead;
+    private int frameCount;
+    private long frameStartNs;
+    private long lastFrameStartNs;
+    private long lastTargetIntervalNs;
+    private long targetIntervalNs;
+    private long droppedFrames;
+
+    /**
+     * 开始一帧
+     * @param targetIntervalMillis 当前目标帧间隔（用于掉帧判定），<= 0 表示不连续出帧、不判定掉帧
+     */
+    public void beginFrame(long targetIntervalMillis) {
+        frameStartNs = System.nanoTime();
+        targetIntervalNs = targetIntervalMillis * 1_000_000L;
+        Arrays.fill(pending, 0L);
+        Arrays.fill(ran, false);
+    }
+
+    /** 取当前时间戳，作为阶段起点 */
+    public long mark() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 累计阶段耗时（同一帧内同一阶段可多次累计）
+     * @return 当前时间戳，可直接作为下一阶段起点
+     */
+    public long addStage(int stage, long startNs) {
+        long now = System.nanoTime();
+        pending[stage] += now - startNs;
+        ran[stage] = true;
+        return now;
+    }
+
+    /** 结束一帧，将本帧执行过的阶段写入各自的环形缓冲区 */
+    public void endFrame() {
+        long now = System.nanoTime();
+        pending[STAGE_TOTAL] = now - frameStartNs;
+        ran[STAGE_TOTAL] = true;
+
+        for (int s = 0; s < STAGE_COUNT; s++) {
+            if (!ran[s]) continue;
+            samples[s][heads[s]] = pending[s];
+            heads[s] = (heads[s] + 1) % CAPACITY;
+            if (counts[s] < CAPACITY) counts[s]++;
+        }
+        frameStarts[frameHead] = frameStartNs;
+
+        if (lastFrameStartNs != 0L && targetIntervalNs > 0L && targetIntervalNs == lastTargetIntervalNs
+                && frameStartNs - lastFrameStartNs > targetIntervalNs * DROP_FACTOR) {
+            droppedFrames++;
+        }
+        // 不连续出帧的帧不作为下一帧的间隔起点
+        lastFrameStartNs = targetIntervalNs > 0L ? frameStartNs : 0L;
+        lastTargetIntervalNs = targetIntervalNs;
+
+        frameHead = (frameHead + 1) % CAPACITY;
+        if (frameCount < CAPACITY) frameCount++;
+    }
+
+    /**
+     * 阶段的样本数（该阶段尚未执行过时为 0）
+     */
+    public int sampleCount(int stage) {
+        return counts[stage];
+    }
+
+    /**
+     * 阶段耗时百分位（纳秒）
+     * @param percentile 0..100
+     */
+    public long percentileNanos(int stage, int percentile) {
+        int count = counts[stage];
+        if (count == 0) return 0L;
+        System.arraycopy(samples[stage], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        int idx = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return scratch[Math.max(0, Math.min(count - 1, idx))];
+    }
+
+    /**
+     * 最近一秒内的实测帧率
+     */
+    public float measuredFps() {
+        if (frameCount < 2) return 0f;
+        long newest = frameStarts[(frameHead - 1 + CAPACITY) % CAPACITY];
+        long windowStart = newest - 1_000_000_000L;
+        int frames = 0;
+        long oldest = newest;
+        for (int i = 1; i <= frameCount; i++) {
+            long t = frameStarts[(frameHead - i + CAPACITY) % CAPACITY];
+            if (t < windowStart) break;
+            frames++;
+            oldest = t;
+        }
+        if (frames < 2 || newest == oldest) return 0f;
+        return (frames - 1) * 1e9f / (newest - oldest);
+    }
+
+    /**
+     * 不经过 beginFrame/endFrame 的帧（环境模式）调用：之后的第一帧不与之前的帧比较间隔
+     */
+    public void breakSequence() {
+        lastFrameStartNs = 0L;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
@@ -41,17 +41,31 @@ public class MainActivity extends Activity {
         recyclerView.setAdapter(adapter);
     }
 
+    /**
+     * 刷新策略选择（对应 FrameScheduler.POLICY_*）
+     */
+    private void showFramePolicyDialog() {
+        String[] names = {"自适应（推荐）", "固定 15 帧", "省电（5 帧）"};
+        int current = prefsManager.getFramePolicy();
+        new AlertDialog.Builder(this)
+                .setTitle("刷新策略")
+                .setSingleChoiceItems(names, current, (dialog, which) -> {
+                    prefsManager.setFramePolicy(which);
+                    dialog.dismiss();
+                }).show();
+    }
+
     public class SettingsAdapter extends WearableRecyclerView.Adapter<SettingsAdapter.ViewHolder> {
 
-        // 主界面显示：元素配置、 背景设置、 电量环（开关）
-        private final String[] settings = {"元素配置", "背景设置", "电量环"};
+        // 主界面显示：元素配置、 背景设置、 电量环（开关）、 刷新策略、 火焰贴图模式（开关）、 调试信息（开发者，开关）
+        private final String[] settings = {"元素配置", "背景设置", "电量环", "刷新策略", "火焰贴图模式", "调试信息"};
         private final int TYPE_NAV = 0;
         private final int TYPE_SWITCH = 1;
 
         @Override
         public int getItemViewType(int position) {
-            // 电量环仍为开关（position 2）
-            if (position == 2) return TYPE_SWITCH;
+            // 电量环（position 2）、火焰贴图模式（position 4）、调试信息（position 5）为开关
+            if (position == 2 || position == 4 || position == 5) return TYPE_SWITCH;
             return TYPE_NAV;
         }
 
@@ -72,13 +86,26 @@ public class MainActivity extends Activity {
                 holder.switchButton.setVisibility(View.VISIBLE);
 
                 holder.switchButton.setOnCheckedChangeListener(null);
-                holder.switchButton.setChecked(prefsManager.isBatteryRingEnabled());
-                holder.switchButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                    prefsManager.setBatteryRingEnabled(isChecked);
-                    sendBroadcast(new Intent(PreferencesManager.PREF_CHANGED_ACTION));
-                    Toast.makeText(MainActivity.this,
-                            "电量环已" + (isChecked ? "开启" : "关闭"), Toast.LENGTH_SHORT).show();
-                });
+                if (position == 2) {
+                    holder.switchButton.setChecked(prefsManager.isBatteryRingEnabled());
+                    holder.switchButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                        prefsManager.setBatteryRingEnabled(isChecked);
+                        Toast.makeText(MainActivity.this,
+                                "电量环已" + (isChecked ? "开启" : "关闭"), Toast.LENGTH_SHORT).show();
+                    });
+                } else if (position == 5) {
+                    holder.switchButton.setChecked(prefsManager.isDebugHudEnabled());
+                    holder.switchButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                        prefsManager.setDebugHudEnabled(isChecked);
+                    });
+                } else {
+                    holder.switchButton.setChecked(prefsManager.isFlameSpriteMode());
+                    holder.switchButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                        prefsManager.setFlameSpriteMode(isChecked);
+                        Toast.makeText(MainActivity.this,
+                                "火焰贴图模式已" + (isChecked ? "开启" : "关闭"), Toast.LENGTH_SHORT).show();
+                    });
+                }
 
                 holder.itemView.setOnClickListener(v -> {
                     int pos = holder.getAdapterPosition();
@@ -100,6 +127,8 @@ public class MainActivity extends Activity {
                         // 进入背景选择界面
                         Intent intent = new Intent(MainActivity.this, BackgroundChooseActivity.class);
                         startActivity(intent);
+                    } else if (pos == 3) {
+                        showFramePolicyDialog();
                     }
                 });
             }
@@ -9,11 +9,26 @@ import androidx.wear.watchface.WatchState;
 import androidx.wear.watchface.WatchFaceService;
 import androidx.wear.watchface.ComplicationSlotsManager;
 import androidx.wear.watchface.style.CurrentUserStyleRepository;
+import androidx.wear.watchface.style.UserStyleSchema;
 
 import kotlin.coroutines.Continuation;
 
 public class MainService extends WatchFaceService {
 
+    @NonNull
+    @Override
+    protected UserStyleSchema createUserStyleSchema() {
+        return FireflyComplications.createUserStyleSchema();
+    }
+
+    @NonNull
+    @Override
+    protected ComplicationSlotsManager createComplicationSlotsManager(
+            @NonNull CurrentUserStyleRepository currentUserStyleRepository
+    ) {
+        return FireflyComplications.createManager(this, currentUserStyleRepository);
+    }
+
     @Override
     public Object createWatchFace(
             @NonNull SurfaceHolder surfaceHolder,
@@ -22,12 +37,13 @@ public class MainService extends WatchFaceService {
             @NonNull CurrentUserStyleRepository currentUserStyleRepository,
             @NonNull Continuation<? super WatchFace> continuation
     ) {
-        // frame delay 每秒 15 帧
+        // 初始帧间隔为满帧，之后由 FrameScheduler 按动画/电量动态调整
         DigitalRenderer renderer = new DigitalRenderer(
                 surfaceHolder,
                 currentUserStyleRepository,
                 watchState,
-                1000L / 15,
+                complicationSlotsManager,
+                FrameScheduler.frameDelayMillis(FrameScheduler.FULL_FPS),
                 getApplicationContext()
         );
 
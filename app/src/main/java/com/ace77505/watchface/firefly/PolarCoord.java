@@ -81,6 +81,15 @@ public class PolarCoord {
         out[1] = cy + (float) Math.sin(rad) * absRadius;
     }
 
+    /**
+     * 将角度规范化到 [0, 360)
+     */
+    public static float normalizeAngle(float deg) {
+        float a = deg % 360f;
+        if (a < 0f) a += 360f;
+        return a;
+    }
+
     public float getCenterX() { return cx; }
     public float getCenterY() { return cy; }
     public float getMaxRadius() { return maxRadius; }
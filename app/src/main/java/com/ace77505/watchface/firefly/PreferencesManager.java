@@ -2,6 +2,10 @@ package com.ace77505.watchface.firefly;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Map;
 
 /**
  * PreferencesManager
@@ -9,6 +13,11 @@ import android.content.SharedPreferences;
  * - 时间/日期/电量 元素的方向(direction)、距离(distance)、大小(size)、颜色(color)
  * - 电量环是否显示开关
  * - 背景图片文件名与每张图片的缩放百分比（每张图片独立保存）
+ *
+ * 存储默认使用 BinaryPrefsStore（BuildConfig.BINARY_CONFIG_STORE），关闭时退回 watchface_prefs XML。
+ *
+ * 每次提交（单项 setter，或 edit() 暂存多项后 apply()）只写入一次并只发送一次变更通知，
+ * 变更通过进程内 ConfigBus 送达表盘，调用方无需自行通知。
  */
 public class PreferencesManager {
     public static final String PREF_NAME = "watchface_prefs";
@@ -35,6 +44,15 @@ public class PreferencesManager {
     // 电量环（ring）颜色（单独键）
     public static final String KEY_BATTERY_RING_COLOR = "battery_ring_color";
 
+    // 帧率调度策略（FrameScheduler.POLICY_*）
+    public static final String KEY_FRAME_POLICY = "frame_policy";
+
+    // 火焰贴图模式开关
+    public static final String KEY_FLAME_SPRITE_MODE = "flame_sprite_mode";
+
+    // 开发者选项：表盘调试信息（帧率/阶段耗时/位图内存）
+    public static final String KEY_DEBUG_HUD = "debug_hud";
+
     // 背景相关键
     public static final String KEY_BACKGROUND_FILENAME = "background_filename";
     // KEY_BACKGROUND_SCALE will be used as a prefix: KEY_BACKGROUND_SCALE + "_" + filename
@@ -45,6 +63,8 @@ public class PreferencesManager {
     // 默认值
     public static final int DEFAULT_COLOR = android.graphics.Color.BLACK;
     public static final boolean DEFAULT_BATTERY_RING_ENABLED = true;
+    public static final boolean DEFAULT_FLAME_SPRITE_MODE = false;
+    public static final boolean DEFAULT_DEBUG_HUD = false;
 
     // 默认布局参数（以你原有布局为参考）
     public static final float DEFAULT_TIME_DIR = 0f;      // 顶端（用户角度）
@@ -66,71 +86,121 @@ public class PreferencesManager {
     public static final String DEFAULT_BACKGROUND_FILENAME = "119655138_sq.webp";
     public static final int DEFAULT_BACKGROUND_SCALE = 100;
 
+    // 配置冷启动加载耗时（纳秒），供调试信息显示；-1 表示尚未加载
+    private static volatile long configLoadNanos = -1L;
+
     public PreferencesManager(Context context) {
-        prefs = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        Context app = context.getApplicationContext();
+        if (BuildConfig.BINARY_CONFIG_STORE) {
+            // 紧凑二进制存储（进程内单例，首次运行时从 XML 迁移）
+            BinaryPrefsStore store = BinaryPrefsStore.getInstance(app);
+            prefs = store;
+            configLoadNanos = store.getLoadNanos();
+        } else {
+            prefs = app.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            if (configLoadNanos < 0) {
+                // 首次读取会等待 XML 解析完成
+                long start = System.nanoTime();
+                prefs.contains(KEY_TIME_COLOR);
+                configLoadNanos = System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * 配置冷启动加载耗时（纳秒），-1 表示尚未加载
+     */
+    public static long getConfigLoadNanos() {
+        return configLoadNanos;
+    }
+
+    /**
+     * 构建配置快照用的全部取值：二进制存储直接返回其不可变的当前映射（不复制），
+     * XML 存储只能经 getAll() 复制整张表
+     */
+    public Map<String, ?> snapshotAll() {
+        return prefs instanceof BinaryPrefsStore ? ((BinaryPrefsStore) prefs).snapshot() : prefs.getAll();
     }
 
     // ---------------------
     // 原有颜色/开关接口
     // ---------------------
-    public void setTimeColor(int color) { prefs.edit().putInt(KEY_TIME_COLOR, color).apply(); }
+    public void setTimeColor(int color) { edit().setTimeColor(color).apply(); }
     public int getTimeColor() { return prefs.getInt(KEY_TIME_COLOR, DEFAULT_COLOR); }
 
-    public void setDateColor(int color) { prefs.edit().putInt(KEY_DATE_COLOR, color).apply(); }
+    public void setDateColor(int color) { edit().setDateColor(color).apply(); }
     public int getDateColor() { return prefs.getInt(KEY_DATE_COLOR, DEFAULT_COLOR); }
 
-    public void setBatteryRingEnabled(boolean enabled) { prefs.edit().putBoolean(KEY_BATTERY_RING_ENABLED, enabled).apply(); }
+    public void setBatteryRingEnabled(boolean enabled) { edit().setBatteryRingEnabled(enabled).apply(); }
     public boolean isBatteryRingEnabled() { return prefs.getBoolean(KEY_BATTERY_RING_ENABLED, DEFAULT_BATTERY_RING_ENABLED); }
 
     // ---------------------
     // 时间元素：direction/distance/size
     // ---------------------
-    public void setTimeDirection(float deg) { prefs.edit().putFloat(KEY_TIME_DIR, deg).apply(); }
+    public void setTimeDirection(float deg) { edit().setTimeDirection(deg).apply(); }
     public float getTimeDirection() { return prefs.getFloat(KEY_TIME_DIR, DEFAULT_TIME_DIR); }
 
-    public void setTimeDistance(float ratio) { prefs.edit().putFloat(KEY_TIME_DIST, ratio).apply(); }
+    public void setTimeDistance(float ratio) { edit().setTimeDistance(ratio).apply(); }
     public float getTimeDistance() { return prefs.getFloat(KEY_TIME_DIST, DEFAULT_TIME_DIST); }
 
-    public void setTimeSize(float size) { prefs.edit().putFloat(KEY_TIME_SIZE, size).apply(); }
+    public void setTimeSize(float size) { edit().setTimeSize(size).apply(); }
     public float getTimeSize() { return prefs.getFloat(KEY_TIME_SIZE, DEFAULT_TIME_SIZE); }
 
     // ---------------------
     // 日期元素：direction/distance/size
     // ---------------------
-    public void setDateDirection(float deg) { prefs.edit().putFloat(KEY_DATE_DIR, deg).apply(); }
+    public void setDateDirection(float deg) { edit().setDateDirection(deg).apply(); }
     public float getDateDirection() { return prefs.getFloat(KEY_DATE_DIR, DEFAULT_DATE_DIR); }
 
-    public void setDateDistance(float ratio) { prefs.edit().putFloat(KEY_DATE_DIST, ratio).apply(); }
+    public void setDateDistance(float ratio) { edit().setDateDistance(ratio).apply(); }
     public float getDateDistance() { return prefs.getFloat(KEY_DATE_DIST, DEFAULT_DATE_DIST); }
 
-    public void setDateSize(float size) { prefs.edit().putFloat(KEY_DATE_SIZE, size).apply(); }
+    public void setDateSize(float size) { edit().setDateSize(size).apply(); }
     public float getDateSize() { return prefs.getFloat(KEY_DATE_SIZE, DEFAULT_DATE_SIZE); }
 
     // ---------------------
     // 电量元素（文本）: direction/distance/size/color
     // ---------------------
-    public void setBatteryDirection(float deg) { prefs.edit().putFloat(KEY_BATTERY_DIR, deg).apply(); }
+    public void setBatteryDirection(float deg) { edit().setBatteryDirection(deg).apply(); }
     public float getBatteryDirection() { return prefs.getFloat(KEY_BATTERY_DIR, DEFAULT_BATTERY_DIR); }
 
-    public void setBatteryDistance(float ratio) { prefs.edit().putFloat(KEY_BATTERY_DIST, ratio).apply(); }
+    public void setBatteryDistance(float ratio) { edit().setBatteryDistance(ratio).apply(); }
     public float getBatteryDistance() { return prefs.getFloat(KEY_BATTERY_DIST, DEFAULT_BATTERY_DIST); }
 
-    public void setBatterySize(float size) { prefs.edit().putFloat(KEY_BATTERY_SIZE, size).apply(); }
+    public void setBatterySize(float size) { edit().setBatterySize(size).apply(); }
     public float getBatterySize() { return prefs.getFloat(KEY_BATTERY_SIZE, DEFAULT_BATTERY_SIZE); }
 
-    public void setBatteryColor(int color) { prefs.edit().putInt(KEY_BATTERY_COLOR, color).apply(); }
+    public void setBatteryColor(int color) { edit().setBatteryColor(color).apply(); }
     public int getBatteryColor() { return prefs.getInt(KEY_BATTERY_COLOR, DEFAULT_BATTERY_COLOR); }
 
     // ---------------------
     // 电环（ring）颜色（新增）
     // ---------------------
-    public void setBatteryRingColor(int color) { prefs.edit().putInt(KEY_BATTERY_RING_COLOR, color).apply(); }
+    public void setBatteryRingColor(int color) { edit().setBatteryRingColor(color).apply(); }
     public int getBatteryRingColor() { return prefs.getInt(KEY_BATTERY_RING_COLOR, DEFAULT_BATTERY_RING_COLOR); }
 
+    // ---------------------
+    // 帧率调度策略
+    // ---------------------
+    public void setFramePolicy(int policy) { edit().setFramePolicy(policy).apply(); }
+    public int getFramePolicy() { return prefs.getInt(KEY_FRAME_POLICY, FrameScheduler.DEFAULT_POLICY); }
+
+    // ---------------------
+    // 火焰贴图模式
+    // ---------------------
+    public void setFlameSpriteMode(boolean enabled) { edit().setFlameSpriteMode(enabled).apply(); }
+    public boolean isFlameSpriteMode() { return prefs.getBoolean(KEY_FLAME_SPRITE_MODE, DEFAULT_FLAME_SPRITE_MODE); }
+
+    // ---------------------
+    // 开发者选项：调试信息叠加
+    // ---------------------
+    public void setDebugHudEnabled(boolean enabled) { edit().setDebugHudEnabled(enabled).apply(); }
+    public boolean isDebugHudEnabled() { return prefs.getBoolean(KEY_DEBUG_HUD, DEFAULT_DEBUG_HUD); }
+
     // ---------------------
     // 背景图片 / 缩放（按图片单独保存缩放）
     // ---------------------
-    public void setBackgroundFilename(String filename) { prefs.edit().putString(KEY_BACKGROUND_FILENAME, filename).apply(); }
+    public void setBackgroundFilename(String filename) { edit().setBackgroundFilename(filename).apply(); }
     public String getBackgroundFilename() { return prefs.getString(KEY_BACKGROUND_FILENAME, DEFAULT_BACKGROUND_FILENAME); }
 
     /**
@@ -138,7 +208,7 @@ public class PreferencesManager {
      */
     public void setBackgroundScale(String filename, int percent) {
         if (filename == null) return;
-        prefs.edit().putInt(KEY_BACKGROUND_SCALE + "_" + filename, percent).apply();
+        edit().setBackgroundScale(filename, percent).apply();
     }
 
     /**
@@ -157,7 +227,90 @@ public class PreferencesManager {
     }
 
     // ---------------------
-    // 触发表盘更新（通过Broadcast）
+    // 触发表盘更新（进程内 ConfigBus，主线程合并分发）
+    // ---------------------
+
+    // 变更通知携带的分区掩码，表盘据此只失效受影响的缓存
+    public static final int CHANGED_LAYOUT = 1;          // 元素方向/距离/大小 -> 重新排版
+    public static final int CHANGED_COLOR = 1 << 1;      // 文本颜色 -> 重新着色
+    public static final int CHANGED_RING = 1 << 2;       // 电量环开关/颜色、火焰贴图模式
+    public static final int CHANGED_BACKGROUND = 1 << 3; // 背景文件/缩放 -> 重新解码
+    public static final int CHANGED_OPTIONS = 1 << 4;    // 刷新策略、调试选项（不影响绘制内容）
+    public static final int CHANGED_ALL = CHANGED_LAYOUT | CHANGED_COLOR | CHANGED_RING
+            | CHANGED_BACKGROUND | CHANGED_OPTIONS;
+
+    private static ConfigBus configBus;
+
+    /**
+     * 进程内配置变更总线（回调在主线程执行）
+     */
+    public static synchronized ConfigBus getConfigBus() {
+        if (configBus == null) {
+            Handler mainHandler = new Handler(Looper.getMainLooper());
+            configBus = new ConfigBus(mainHandler::post);
+        }
+        return configBus;
+    }
+
+    /**
+     * 通知表盘配置已变化（每次提交只调用一次）
+     * @param sections 变更的分区（CHANGED_*）
+     */
+    public void notifyChanged(int sections) {
+        getConfigBus().publish(sections);
+    }
+
+    // ---------------------
+    // 批量修改
     // ---------------------
-    public static final String PREF_CHANGED_ACTION = "com.ace77505.watchface.firefly.PREFS_CHANGED";
+
+    /**
+     * 开始一次批量修改：多项修改先暂存，apply() 时一次写入并只发送一次变更通知
+     * 例：prefsManager.edit().setTimeDirection(0f).setTimeSize(1f).apply();
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    public class Editor {
+        private final SharedPreferences.Editor editor = prefs.edit();
+        private int changed;
+
+        public Editor setTimeColor(int color) { changed |= CHANGED_COLOR; editor.putInt(KEY_TIME_COLOR, color); return this; }
+        public Editor setDateColor(int color) { changed |= CHANGED_COLOR; editor.putInt(KEY_DATE_COLOR, color); return this; }
+        public Editor setBatteryRingEnabled(boolean enabled) { changed |= CHANGED_RING; editor.putBoolean(KEY_BATTERY_RING_ENABLED, enabled); return this; }
+        public Editor setTimeDirection(float deg) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_TIME_DIR, deg); return this; }
+        public Editor setTimeDistance(float ratio) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_TIME_DIST, ratio); return this; }
+        public Editor setTimeSize(float size) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_TIME_SIZE, size); return this; }
+        public Editor setDateDirection(float deg) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_DATE_DIR, deg); return this; }
+        public Editor setDateDistance(float ratio) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_DATE_DIST, ratio); return this; }
+        public Editor setDateSize(float size) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_DATE_SIZE, size); return this; }
+        public Editor setBatteryDirection(float deg) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_BATTERY_DIR, deg); return this; }
+        public Editor setBatteryDistance(float ratio) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_BATTERY_DIST, ratio); return this; }
+        public Editor setBatterySize(float size) { changed |= CHANGED_LAYOUT; editor.putFloat(KEY_BATTERY_SIZE, size); return this; }
+        public Editor setBatteryColor(int color) { changed |= CHANGED_COLOR; editor.putInt(KEY_BATTERY_COLOR, color); return this; }
+        public Editor setBatteryRingColor(int color) { changed |= CHANGED_RING; editor.putInt(KEY_BATTERY_RING_COLOR, color); return this; }
+        public Editor setFramePolicy(int policy) { changed |= CHANGED_OPTIONS; editor.putInt(KEY_FRAME_POLICY, policy); return this; }
+        public Editor setFlameSpriteMode(boolean enabled) { changed |= CHANGED_RING; editor.putBoolean(KEY_FLAME_SPRITE_MODE, enabled); return this; }
+        public Editor setDebugHudEnabled(boolean enabled) { changed |= CHANGED_OPTIONS; editor.putBoolean(KEY_DEBUG_HUD, enabled); return this; }
+        public Editor setBackgroundFilename(String filename) { changed |= CHANGED_BACKGROUND; editor.putString(KEY_BACKGROUND_FILENAME, filename); return this; }
+
+        public Editor setBackgroundScale(String filename, int percent) {
+            if (filename == null) return this;
+            changed |= CHANGED_BACKGROUND;
+            editor.putInt(KEY_BACKGROUND_SCALE + "_" + filename, percent);
+            return this;
+        }
+
+        /**
+         * 一次写入全部暂存的修改（异步落盘），并发送一次携带变更分区的通知；没有任何修改时不做任何事
+         */
+        public void apply() {
+            if (changed == 0) return;
+            int sections = changed;
+            changed = 0;
+            editor.apply();
+            notifyChanged(sections);
+        }
+    }
 }
\ No newline at end of file
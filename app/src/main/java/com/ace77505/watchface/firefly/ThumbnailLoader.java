@@ -0,0 +1,171 @@
+package com.ace77505.watchface.firefly;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ThumbnailLoader - 背景选择列表的缩略图异步加载
+ *
+ * - 解码在后台线程进行：BackgroundDecoder 区域解码 + inSampleSize 采样，再缩放到 size x size（与表盘同样拉伸）
+ * - 缩略图取原图中心正方形（缩放 100%），不随各图片的缩放设置变化
+ * - 内存缓存：按字节计算容量的 LruCache；磁盘缓存：cacheDir/thumbs，以 文件名 + 尺寸 为键
+ * - ImageView 以 tag 记录当前期望的键；重新绑定时取消该 View 上尚未完成的旧请求，旧结果不会覆盖新内容
+ *
+ * load / cancel 只能在主线程调用。
+ */
+public class ThumbnailLoader {
+    public static final String CACHE_DIR = "thumbs";
+    // 磁盘缓存最多保留的文件数（超出时删除最旧的）
+    public static final int MAX_DISK_FILES = 64;
+    public static final int THUMB_SCALE_PERCENT = 100;
+
+    private final Context context;
+    private final File cacheDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "firefly-thumb");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    // 内存缓存：容量为应用可用堆的 1/16（按位图实际字节数计）
+    private final LruCache<String, Bitmap> memoryCache =
+            new LruCache<String, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 16)) {
+                @Override
+                protected int sizeOf(String key, Bitmap value) {
+                    return value.getAllocationByteCount();
+                }
+            };
+
+    // 每个 View 上未完成的请求
+    private final WeakHashMap<ImageView, Future<?>> pending = new WeakHashMap<>();
+
+    public ThumbnailLoader(Context context) {
+        this.context = context.getApplicationContext();
+        this.cacheDir = new File(this.context.getCacheDir(), CACHE_DIR);
+    }
+
+    public static String cacheKey(String filename, int size) {
+        return BackgroundCache.cacheKey(filename, THUMB_SCALE_PERCENT, size, size);
+    }
+
+    /**
+     * 将 filename 的缩略图加载到 view；命中内存缓存时同步设置，否则先清空再异步加载
+     */
+    public void load(ImageView view, String filename, int size) {
+        String key = cacheKey(filename, size);
+        if (key.equals(view.getTag()) && view.getDrawable() != null) return;
+
+        cancel(view);
+        view.setTag(key);
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageDrawable(null);
+        Future<?> task = executor.submit(() -> {
+            Bitmap bmp = loadBlocking(key, filename, size);
+            if (bmp == null || Thread.currentThread().isInterrupted()) return;
+            mainHandler.post(() -> {
+                memoryCache.put(key, bmp);
+                // View 已被重新绑定到其他条目时不设置
+                if (key.equals(view.getTag())) {
+                    pending.remove(view);
+                    view.setImageBitmap(bmp);
+                }
+            });
+        });
+        pending.put(view, task);
+    }
+
+    /**
+     * 取消 view 上尚未完成的请求
+     */
+    public void cancel(ImageView view) {
+        Future<?> old = pending.remove(view);
+        if (old != null) old.cancel(true);
+        view.setTag(null);
+    }
+
+    private Bitmap loadBlocking(String key, String filename, int size) {
+        File file = new File(cacheDir, key);
+        if (file.isFile()) {
+            Bitmap bmp = BitmapFactory.decodeFile(file.getAbsolutePath());
+            if (bmp != null) {
+                file.setLastModified(System.currentTimeMillis());
+                return bmp;
+            }
+            file.delete();
+        }
+
+        BackgroundDecoder.Result decoded = BackgroundDecoder.decodeCenterCrop(
+                context, filename, THUMB_SCALE_PERCENT, size, size);
+        if (decoded == null) return null;
+
+        Bitmap out = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        try {
+            new Canvas(out).drawBitmap(decoded.bitmap, decoded.src, new Rect(0, 0, size, size), scalePaint);
+        } finally {
+            decoded.bitmap.recycle();
+        }
+        save(out, file);
+        return out;
+    }
+
+    private void save(Bitmap bmp, File target) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) return;
+        File tmp = new File(cacheDir, target.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            bmp.compress(Bitmap.CompressFormat.PNG, 100, fos);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return;
+        }
+        trim();
+    }
+
+    private void trim() {
+        File[] files = cacheDir.listFiles();
+        if (files == null || files.length <= MAX_DISK_FILES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_DISK_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    /**
+     * 释放：取消全部请求并清空内存缓存（Activity 销毁时调用）
+     */
+    public void destroy() {
+        executor.shutdownNow();
+        pending.clear();
+        memoryCache.evictAll();
+    }
+}
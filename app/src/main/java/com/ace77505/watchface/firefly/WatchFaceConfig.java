@@ -0,0 +1,186 @@
+package com.ace77505.watchface.firefly;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 表盘配置快照（不可变）
+ *
+ * - 由 load() 从存储当前的全部取值（PreferencesManager.snapshotAll）一次性构建，同一快照内的取值必然来自同一时刻；
+ *   二进制存储直接使用其不可变映射、不复制，XML 存储经 getAll() 复制整张表（含各背景的缩放键）
+ * - 只解析变更通知中标记的分区，其余分区直接沿用上一快照的字段
+ * - 渲染器通过一个 volatile 引用发布快照，每帧只读取一次，不会出现新旧取值混用
+ * - version 每次构建递增；各分区（布局/颜色/电量环/背景）另有分区版本，分区内容未变化时沿用上一快照的版本，
+ *   使用方只需比较分区版本即可跳过未受影响的工作（例如颜色变化不触发背景解码）
+ */
+public final class WatchFaceConfig {
+    public final int version;
+    public final int layoutVersion;
+    public final int colorVersion;
+    public final int ringVersion;
+    public final int backgroundVersion;
+
+    // 布局：方向（用户角度）/ 距离（半径比例）/ 大小（倍数）
+    public final float timeDirDeg;
+    public final float timeDistRatio;
+    public final float timeSizeScale;
+
+    public final float dateDirDeg;
+    public final float dateDistRatio;
+    public final float dateSizeScale;
+
+    public final float batteryDirDeg;
+    public final float batteryDistRatio;
+    public final float batterySizeScale;
+
+    // 颜色
+    public final int timeColor;
+    public final int dateColor;
+    public final int batteryColor;
+
+    // 电量环与火焰
+    public final boolean batteryRingEnabled;
+    public final boolean flameSpriteMode;
+
+    // 背景
+    public final String backgroundFilename;
+    public final int backgroundScalePercent;
+
+    // 运行选项（不影响绘制内容）
+    public final int framePolicy;
+    public final boolean debugHud;
+
+    private WatchFaceConfig(Map<String, ?> all, WatchFaceConfig previous, int sections) {
+        // 只重新读取 sections 指定的分区，其余分区直接沿用上一快照
+        boolean layout = previous == null || (sections & PreferencesManager.CHANGED_LAYOUT) != 0;
+        boolean color = previous == null || (sections & PreferencesManager.CHANGED_COLOR) != 0;
+        boolean ring = previous == null || (sections & PreferencesManager.CHANGED_RING) != 0;
+        boolean background = previous == null || (sections & PreferencesManager.CHANGED_BACKGROUND) != 0;
+        boolean options = previous == null || (sections & PreferencesManager.CHANGED_OPTIONS) != 0;
+
+        timeDirDeg = layout
+                ? getFloat(all, PreferencesManager.KEY_TIME_DIR, PreferencesManager.DEFAULT_TIME_DIR)
+                : previous.timeDirDeg;
+        timeDistRatio = layout
+                ? getFloat(all, PreferencesManager.KEY_TIME_DIST, PreferencesManager.DEFAULT_TIME_DIST)
+                : previous.timeDistRatio;
+        timeSizeScale = layout
+                ? getFloat(all, PreferencesManager.KEY_TIME_SIZE, PreferencesManager.DEFAULT_TIME_SIZE)
+                : previous.timeSizeScale;
+
+        dateDirDeg = layout
+                ? getFloat(all, PreferencesManager.KEY_DATE_DIR, PreferencesManager.DEFAULT_DATE_DIR)
+                : previous.dateDirDeg;
+        dateDistRatio = layout
+                ? getFloat(all, PreferencesManager.KEY_DATE_DIST, PreferencesManager.DEFAULT_DATE_DIST)
+                : previous.dateDistRatio;
+        dateSizeScale = layout
+                ? getFloat(all, PreferencesManager.KEY_DATE_SIZE, PreferencesManager.DEFAULT_DATE_SIZE)
+                : previous.dateSizeScale;
+
+        batteryDirDeg = layout
+                ? getFloat(all, PreferencesManager.KEY_BATTERY_DIR, PreferencesManager.DEFAULT_BATTERY_DIR)
+                : previous.batteryDirDeg;
+        batteryDistRatio = layout
+                ? getFloat(all, PreferencesManager.KEY_BATTERY_DIST, PreferencesManager.DEFAULT_BATTERY_DIST)
+                : previous.batteryDistRatio;
+        batterySizeScale = layout
+                ? getFloat(all, PreferencesManager.KEY_BATTERY_SIZE, PreferencesManager.DEFAULT_BATTERY_SIZE)
+                : previous.batterySizeScale;
+
+        timeColor = color
+                ? getInt(all, PreferencesManager.KEY_TIME_COLOR, PreferencesManager.DEFAULT_COLOR)
+                : previous.timeColor;
+        dateColor = color
+                ? getInt(all, PreferencesManager.KEY_DATE_COLOR, PreferencesManager.DEFAULT_COLOR)
+                : previous.dateColor;
+        batteryColor = color
+                ? getInt(all, PreferencesManager.KEY_BATTERY_COLOR, PreferencesManager.DEFAULT_BATTERY_COLOR)
+                : previous.batteryColor;
+
+        batteryRingEnabled = ring
+                ? getBoolean(all, PreferencesManager.KEY_BATTERY_RING_ENABLED,
+                        PreferencesManager.DEFAULT_BATTERY_RING_ENABLED)
+                : previous.batteryRingEnabled;
+        flameSpriteMode = ring
+                ? getBoolean(all, PreferencesManager.KEY_FLAME_SPRITE_MODE,
+                        PreferencesManager.DEFAULT_FLAME_SPRITE_MODE)
+                : previous.flameSpriteMode;
+
+        if (background) {
+            Object filename = all.get(PreferencesManager.KEY_BACKGROUND_FILENAME);
+            backgroundFilename = filename instanceof String
+                    ? (String) filename : PreferencesManager.DEFAULT_BACKGROUND_FILENAME;
+            backgroundScalePercent = getInt(all, PreferencesManager.KEY_BACKGROUND_SCALE + "_" + backgroundFilename,
+                    PreferencesManager.DEFAULT_BACKGROUND_SCALE);
+        } else {
+            backgroundFilename = previous.backgroundFilename;
+            backgroundScalePercent = previous.backgroundScalePercent;
+        }
+
+        framePolicy = options
+                ? getInt(all, PreferencesManager.KEY_FRAME_POLICY, FrameScheduler.DEFAULT_POLICY)
+                : previous.framePolicy;
+        debugHud = options
+                ? getBoolean(all, PreferencesManager.KEY_DEBUG_HUD, PreferencesManager.DEFAULT_DEBUG_HUD)
+                : previous.debugHud;
+
+        // 版本：分区内容不变时沿用上一快照的分区版本
+        version = previous == null ? 1 : previous.version + 1;
+        layoutVersion = previous != null && previous.sameLayout(this) ? previous.layoutVersion : version;
+        colorVersion = previous != null && previous.sameColors(this) ? previous.colorVersion : version;
+        ringVersion = previous != null && previous.sameRing(this) ? previous.ringVersion : version;
+        backgroundVersion = previous != null && previous.sameBackground(this) ? previous.backgroundVersion : version;
+    }
+
+    /**
+     * 从 prefs 一次性构建新快照
+     * @param previous 上一快照（用于版本递增与分区比较），首次传 null
+     * @param sections 需要重新读取的分区（PreferencesManager.CHANGED_*），其余分区沿用 previous
+     */
+    public static WatchFaceConfig load(PreferencesManager prefsManager, WatchFaceConfig previous, int sections) {
+        return new WatchFaceConfig(prefsManager.snapshotAll(), previous, sections);
+    }
+
+    /**
+     * 全部取默认值的快照（prefs 读取失败时兜底）
+     */
+    public static WatchFaceConfig defaults() {
+        return new WatchFaceConfig(Collections.<String, Object>emptyMap(), null, PreferencesManager.CHANGED_ALL);
+    }
+
+    public boolean sameLayout(WatchFaceConfig o) {
+        return timeDirDeg == o.timeDirDeg && timeDistRatio == o.timeDistRatio && timeSizeScale == o.timeSizeScale
+                && dateDirDeg == o.dateDirDeg && dateDistRatio == o.dateDistRatio && dateSizeScale == o.dateSizeScale
+                && batteryDirDeg == o.batteryDirDeg && batteryDistRatio == o.batteryDistRatio
+                && batterySizeScale == o.batterySizeScale;
+    }
+
+    public boolean sameColors(WatchFaceConfig o) {
+        return timeColor == o.timeColor && dateColor == o.dateColor && batteryColor == o.batteryColor;
+    }
+
+    public boolean sameRing(WatchFaceConfig o) {
+        return batteryRingEnabled == o.batteryRingEnabled && flameSpriteMode == o.flameSpriteMode;
+    }
+
+    public boolean sameBackground(WatchFaceConfig o) {
+        return backgroundScalePercent == o.backgroundScalePercent
+                && backgroundFilename.equals(o.backgroundFilename);
+    }
+
+    private static float getFloat(Map<String, ?> all, String key, float def) {
+        Object v = all.get(key);
+        return v instanceof Float ? (Float) v : def;
+    }
+
+    private static int getInt(Map<String, ?> all, String key, int def) {
+        Object v = all.get(key);
+        return v instanceof Integer ? (Integer) v : def;
+    }
+
+    private static boolean getBoolean(Map<String, ?> all, String key, boolean def) {
+        Object v = all.get(key);
+        return v instanceof Boolean ? (Boolean) v : def;
+    }
+}
@@ -0,0 +1,275 @@
+package com.ace77505.watchface.firefly;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Shader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 渲染测试：以 Robolectric 原生图形在 JVM 上驱动交互模式绘制路径（FaceCompositor，DigitalRenderer 每帧即调用它）
+ *
+ * - 输入：固定的 ZonedDateTime × 电量 × 表盘尺寸；背景为程序生成的渐变，不依赖 assets 与解码路径
+ * - 静态层与 src/test/resources/goldens 下的 PNG 基准图逐像素比较，不一致时实际结果写入 build/render-harness
+ * - 稳态帧（静态层不重建）统计本线程的 Java 堆分配字节数，任何分配即失败；
+ *   JIT 编译/去优化偶尔会在某一轮产生与绘制代码无关的分配，因此测量 ALLOC_ROUNDS 轮取最小值，
+ *   绘制代码自身的每帧分配每一轮都会出现
+ * - 稳态帧耗时中位数超过 15 帧预算即失败（主机耗时不代表手表，只用于发现数量级的退化）
+ *
+ * 修改绘制效果后重新生成基准图：./gradlew :app:testDebugUnitTest -PrecordGoldens=true
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class RenderHarnessTest {
+    public static final String GOLDEN_DIR = "goldens";
+    public static final File GOLDEN_SOURCE_DIR = new File("src/test/resources/" + GOLDEN_DIR);
+    public static final File ACTUAL_DIR = new File("build/render-harness");
+    public static final boolean RECORD = Boolean.getBoolean("firefly.recordGoldens");
+
+    public static final int WARMUP_FRAMES = 5;
+    public static final int MEASURED_FRAMES = 30;
+    public static final int ALLOC_ROUNDS = 3;
+
+    public static final int[] SIZES = {384, 454};
+    public static final float[] BATTERY_LEVELS = {0.05f, 0.5f, 1.0f};
+    public static final ZonedDateTime[] TIMES = {
+            ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")),
+            ZonedDateTime.of(2024, 6, 15, 12, 34, 0, 0, ZoneId.of("UTC")),
+            ZonedDateTime.of(2024, 12, 31, 23, 59, 0, 0, ZoneId.of("UTC")),
+    };
+
+    private final WatchFaceConfig cfg = WatchFaceConfig.defaults();
+    private final long[] frameNanos = new long[MEASURED_FRAMES];
+    private Context context;
+    private Locale savedLocale;
+
+    @Before
+    public void setUp() {
+        // 日期文本按默认 Locale 格式化，固定为 US 保证基准图与主机语言无关
+        savedLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+        context = RuntimeEnvironment.getApplication();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(savedLocale);
+    }
+
+    @Test
+    public void staticLayerMatchesGoldens() throws IOException {
+        StringBuilder failures = new StringBuilder();
+        for (int size : SIZES) {
+            Frame frame = new Frame(size);
+            for (int ti = 0; ti < TIMES.length; ti++) {
+                for (float level : BATTERY_LEVELS) {
+                    String name = caseName(size, ti, level);
+                    frame.compositor.staticLayerDirty = true;
+                    frame.render(TIMES[ti], level, cfg);
+                    checkGolden(name, frame.compositor.staticLayer, failures);
+                }
+            }
+            frame.release();
+        }
+        assertTrue("golden mismatch:\n" + failures, failures.length() == 0);
+    }
+
+    @Test
+    public void steadyFramesDoNotAllocate() {
+        StringBuilder failures = new StringBuilder();
+        for (boolean sprite : new boolean[]{false, true}) {
+            for (int size : SIZES) {
+                Frame frame = new Frame(size);
+                frame.compositor.batteryRing.setFlameSpriteMode(sprite);
+                for (int ti = 0; ti < TIMES.length; ti++) {
+                    for (float level : BATTERY_LEVELS) {
+                        warmUp(frame, TIMES[ti], level);
+
+                        long allocated = Long.MAX_VALUE;
+                        for (int round = 0; round < ALLOC_ROUNDS && allocated > 0; round++) {
+                            allocated = Math.min(allocated, measureAllocatedBytes(frame, TIMES[ti], level));
+                        }
+
+                        if (allocated > 0) {
+                            failures.append(String.format(Locale.US, "%s sprite=%b: %d bytes in %d frames\n",
+                                    caseName(size, ti, level), sprite, allocated, MEASURED_FRAMES));
+                        }
+                    }
+                }
+                frame.release();
+            }
+        }
+        assertTrue("steady frames allocated:\n" + failures, failures.length() == 0);
+    }
+
+    @Test
+    public void steadyFramesFitBudget() {
+        long budgetNanos = FrameScheduler.frameDelayMillis(FrameScheduler.FULL_FPS) * 1_000_000L;
+        StringBuilder failures = new StringBuilder();
+        for (int size : SIZES) {
+            Frame frame = new Frame(size);
+            for (int ti = 0; ti < TIMES.length; ti++) {
+                for (float level : BATTERY_LEVELS) {
+                    warmUp(frame, TIMES[ti], level);
+                    for (int i = 0; i < MEASURED_FRAMES; i++) {
+                        long start = System.nanoTime();
+                        frame.render(TIMES[ti], level, cfg);
+                        frameNanos[i] = System.nanoTime() - start;
+                    }
+                    Arrays.sort(frameNanos);
+                    long p50 = frameNanos[MEASURED_FRAMES / 2];
+                    long max = frameNanos[MEASURED_FRAMES - 1];
+                    if (p50 > budgetNanos) {
+                        failures.append(String.format(Locale.US, "%s p50=%.2fms max=%.2fms\n",
+                                caseName(size, ti, level), p50 / 1e6f, max / 1e6f));
+                    }
+                }
+            }
+            frame.release();
+        }
+        assertTrue("frames over budget:\n" + failures, failures.length() == 0);
+    }
+
+    /**
+     * MEASURED_FRAMES 个稳态帧在本线程分配的字节数（已扣除计数调用本身的开销）
+     */
+    private long measureAllocatedBytes(Frame frame, ZonedDateTime dateTime, float level) {
+        long overhead = -allocatedBytes() + allocatedBytes();
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            frame.render(dateTime, level, cfg);
+        }
+        return allocatedBytes() - before - overhead;
+    }
+
+    /**
+     * 首帧重建静态层，之后的预热帧完成火焰图集、字形图集等的构建
+     */
+    private void warmUp(Frame frame, ZonedDateTime dateTime, float level) {
+        frame.compositor.staticLayerDirty = true;
+        for (int i = 0; i <= WARMUP_FRAMES; i++) {
+            frame.render(dateTime, level, cfg);
+        }
+    }
+
+    private void checkGolden(String name, Bitmap actual, StringBuilder failures) throws IOException {
+        if (RECORD) {
+            writePng(new File(GOLDEN_SOURCE_DIR, name + ".png"), actual);
+            return;
+        }
+
+        Bitmap expected;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(GOLDEN_DIR + "/" + name + ".png")) {
+            if (in == null) {
+                failures.append(name).append(": missing golden (run with -PrecordGoldens=true)\n");
+                return;
+            }
+            expected = BitmapFactory.decodeStream(in);
+        }
+
+        int diff = countDifferentPixels(expected, actual);
+        if (diff != 0) {
+            File out = new File(ACTUAL_DIR, name + ".actual.png");
+            writePng(out, actual);
+            failures.append(String.format(Locale.US, "%s: %d pixels differ, actual written to %s\n",
+                    name, diff, out.getPath()));
+        }
+        expected.recycle();
+    }
+
+    private static int countDifferentPixels(Bitmap expected, Bitmap actual) {
+        int w = actual.getWidth();
+        int h = actual.getHeight();
+        if (expected.getWidth() != w || expected.getHeight() != h) return w * h;
+
+        int[] a = new int[w * h];
+        int[] b = new int[w * h];
+        expected.getPixels(a, 0, w, 0, 0, w, h);
+        actual.getPixels(b, 0, w, 0, 0, w, h);
+        int diff = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) diff++;
+        }
+        return diff;
+    }
+
+    private static String caseName(int size, int timeIndex, float level) {
+        return String.format(Locale.US, "face_%d_t%d_b%03d", size, timeIndex, Math.round(level * 100));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void writePng(File file, Bitmap bitmap) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) throw new IOException("cannot create " + dir);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        }
+    }
+
+    /**
+     * 一种表盘尺寸下的离屏目标、背景与合成器
+     */
+    private class Frame {
+        final Rect bounds;
+        final Bitmap target;
+        final Canvas canvas;
+        final Bitmap background;
+        final FaceCompositor compositor = new FaceCompositor(context, new FrameStats());
+
+        Frame(int size) {
+            bounds = new Rect(0, 0, size, size);
+            target = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            canvas = new Canvas(target);
+            background = gradientBackground(size);
+        }
+
+        void render(ZonedDateTime dateTime, float level, WatchFaceConfig cfg) {
+            compositor.frameStats.beginFrame(0L);
+            compositor.renderInteractive(canvas, bounds, dateTime, level, cfg, background);
+            compositor.frameStats.endFrame();
+        }
+
+        void release() {
+            compositor.release();
+            background.recycle();
+            target.recycle();
+        }
+    }
+
+    private static Bitmap gradientBackground(int size) {
+        Bitmap bmp = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Paint paint = new Paint();
+        paint.setShader(new LinearGradient(0, 0, size, size,
+                Color.rgb(0xB8, 0xD8, 0xF0), Color.rgb(0xF6, 0xC8, 0xA8), Shader.TileMode.CLAMP));
+        new Canvas(bmp).drawPaint(paint);
+        return bmp;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ace77505.watchface.firefly.benchmark;
+
+import com.ace77505.watchface.firefly.ConfigBus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配置变更传播延迟：publish() 到监听者在分发线程（模拟主线程 Looper）收到回调的耗时
+ *
+ * - publishToDelivery：单次修改的端到端延迟
+ * - burstCoalesced：连续 5 次修改（不同分区）直到监听者看到全部分区，正常情况下合并为一次回调
+ * 吞吐量（ops/us）的倒数即单次传播延迟（us）。
+ */
+@State(Scope.Benchmark)
+public class ConfigBusBenchmark {
+    // 与 PreferencesManager.CHANGED_* 一致（该类依赖 Android 运行时，不参与 JVM 编译）
+    private static final int[] SECTIONS = {1, 1 << 1, 1 << 2, 1 << 3, 1 << 4};
+    private static final int ALL = (1 << 5) - 1;
+
+    private ExecutorService dispatcher;
+    private ConfigBus bus;
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private final AtomicInteger seenSections = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dispatcher = Executors.newSingleThreadExecutor();
+        bus = new ConfigBus(dispatcher);
+        bus.register(sections -> {
+            seenSections.getAndAccumulate(sections, (a, b) -> a | b);
+            deliveries.incrementAndGet();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdownNow();
+    }
+
+    @Benchmark
+    public int publishToDelivery() {
+        int target = deliveries.get() + 1;
+        bus.publish(SECTIONS[1]);
+        while (deliveries.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    @Benchmark
+    public int burstCoalesced() {
+        seenSections.set(0);
+        int before = deliveries.get();
+        for (int s : SECTIONS) {
+            bus.publish(s);
+        }
+        while (seenSections.get() != ALL) {
+            Thread.onSpinWait();
+        }
+        return deliveries.get() - before;
+    }
+}
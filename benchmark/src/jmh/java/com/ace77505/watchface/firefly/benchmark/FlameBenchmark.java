@@ -0,0 +1,62 @@
+package com.ace77505.watchface.firefly.benchmark;
+
+import com.ace77505.watchface.firefly.FlameKeyframes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 火焰特效每帧数学：原始三角函数公式 vs 预计算关键帧表插值，以及强度计算
+ */
+@State(Scope.Thread)
+public class FlameBenchmark {
+    // 与 FlameEffect.FLAME_POINTS 一致（FlameEffect 依赖 android.graphics.Color，无法在 JVM 上加载）
+    private static final int FLAME_POINTS = 5;
+
+    @Param({"16", "64", "256"})
+    public int resolution;
+
+    private FlameKeyframes keyframes;
+    private final float[] frame = new float[FLAME_POINTS * FlameKeyframes.STRIDE];
+    private final float[] point = new float[FlameKeyframes.STRIDE];
+    private float phase;
+
+    @Setup
+    public void setup() {
+        keyframes = new FlameKeyframes(FLAME_POINTS, resolution);
+    }
+
+    private float nextPhase() {
+        phase += 0.0167f;
+        if (phase >= 1f) phase -= 1f;
+        return phase;
+    }
+
+    /** 原 drawFlameLayers 的逐帧计算（每帧约 15 次 sin/cos） */
+    @Benchmark
+    public float exactFrame() {
+        float p = nextPhase();
+        float acc = 0f;
+        for (int i = 0; i < FLAME_POINTS; i++) {
+            FlameKeyframes.computeExact(i, FLAME_POINTS, p, point);
+            acc += point[0] + point[1] + point[2];
+        }
+        return acc;
+    }
+
+    /** 当前实现：关键帧表插值 */
+    @Benchmark
+    public float keyframeSample() {
+        keyframes.sample(nextPhase(), frame);
+        return frame[0] + frame[frame.length - 1];
+    }
+
+    @Benchmark
+    public float calculateIntensity() {
+        float p = nextPhase();
+        return FlameKeyframes.intensity(p);
+    }
+}
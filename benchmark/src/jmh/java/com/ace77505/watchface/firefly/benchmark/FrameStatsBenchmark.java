@@ -0,0 +1,38 @@
+package com.ace77505.watchface.firefly.benchmark;
+
+import com.ace77505.watchface.firefly.FrameStats;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 帧耗时统计自身的开销（每帧记录、HUD 每秒查询百分位）
+ */
+@State(Scope.Thread)
+public class FrameStatsBenchmark {
+    private final FrameStats stats = new FrameStats();
+
+    @Setup
+    public void setup() {
+        // 填满环形缓冲区，使百分位查询覆盖完整窗口
+        for (int i = 0; i < FrameStats.CAPACITY; i++) {
+            recordFrame();
+        }
+    }
+
+    @Benchmark
+    public void recordFrame() {
+        stats.beginFrame(66L);
+        long t = stats.mark();
+        t = stats.addStage(FrameStats.STAGE_BLIT, t);
+        stats.addStage(FrameStats.STAGE_FLAME, t);
+        stats.endFrame();
+    }
+
+    @Benchmark
+    public long percentile() {
+        return stats.percentileNanos(FrameStats.STAGE_TOTAL, 95);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ace77505.watchface.firefly.benchmark;
+
+import com.ace77505.watchface.firefly.PolarCoord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * PolarCoord 无分配坐标转换与角度规范化（每帧多次调用）
+ */
+@State(Scope.Thread)
+public class PolarCoordBenchmark {
+    private PolarCoord polar;
+    private final float[] out = new float[2];
+    private float angle;
+
+    @Setup
+    public void setup() {
+        polar = new PolarCoord(227f, 227f, 227f);
+    }
+
+    @Benchmark
+    public float toCartesianDegOut() {
+        angle += 1.7f;
+        polar.toCartesianDegOut(angle, 212f, out);
+        return out[0] + out[1];
+    }
+
+    @Benchmark
+    public float toCartesianRatioOut() {
+        angle += 1.7f;
+        polar.toCartesianRatioOut(angle, 0.9f, out);
+        return out[0] + out[1];
+    }
+
+    @Benchmark
+    public float normalizeAngle() {
+        angle -= 97.3f;
+        return PolarCoord.normalizeAngle(angle);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ace77505.watchface.firefly.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 时间/日期格式化：DateTimeFormatter（drawDigitalTime 中日期仍使用）vs 字形图集使用的逐位取数
+ */
+@State(Scope.Thread)
+public class TimeFormatBenchmark {
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEE, MMM d");
+    private final ZonedDateTime dateTime =
+            ZonedDateTime.of(2026, 10, 16, 21, 47, 0, 0, ZoneId.of("Asia/Shanghai"));
+
+    @Benchmark
+    public String formatTime() {
+        return dateTime.format(timeFormatter);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return dateTime.format(dateFormatter);
+    }
+
+    /** DigitGlyphAtlas.drawTime 所需的 5 个字形索引 */
+    @Benchmark
+    public int timeDigits() {
+        int hour = dateTime.getHour();
+        int minute = dateTime.getMinute();
+        return (hour / 10) + (hour % 10) * 11 + 10 * 121 + (minute / 10) * 1331 + (minute % 10) * 14641;
+    }
+}